@@ -7,10 +7,34 @@
   public *;
 }
 
+-keep class com.zapic.sdk.android.ZapicMetrics {
+  public *;
+}
+
+-keep class com.zapic.sdk.android.ZapicMetrics$* {
+  public *;
+}
+
+-keep interface com.zapic.sdk.android.ZapicMetricsListener {
+  public *;
+}
+
 -keep class com.zapic.sdk.android.ZapicPlayer {
   public *;
 }
 
+-keep interface com.zapic.sdk.android.ZapicStartupListener {
+  public *;
+}
+
+-keep class com.zapic.sdk.android.ZapicStartupTimeline {
+  public *;
+}
+
+-keep class com.zapic.sdk.android.ZapicStartupTimeline$* {
+  public *;
+}
+
 -keep interface com.zapic.sdk.android.Zapic$AuthenticationHandler {
   public *;
 }
@@ -0,0 +1,144 @@
+package com.zapic.sdk.android;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+/**
+ * Reports resumed and paused activities to the {@link ViewManager} using
+ * {@link Application.ActivityLifecycleCallbacks}.
+ * <p>
+ * This is an alternative to attaching a {@link ZapicFrameworkFragment} or
+ * {@link ZapicSupportFragment} instance to each activity. It does not run fragment transactions,
+ * so it adds no work to the game's activity creation. While it is enabled,
+ * {@link Zapic#attachFragment(Activity)} does not attach fragments.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class ActivityTracker implements Application.ActivityLifecycleCallbacks {
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "ActivityTracker";
+
+    /**
+     * The global application or {@code null} if the application context is not an
+     * {@link Application}.
+     */
+    @Nullable
+    private final Application mApplication;
+
+    /**
+     * The {@link ViewManager} instance.
+     */
+    @NonNull
+    private final ViewManager mViewManager;
+
+    /**
+     * A value indicating whether the lifecycle callbacks have been registered.
+     */
+    private boolean mEnabled;
+
+    /**
+     * Creates a new {@link ActivityTracker} instance.
+     *
+     * @param context     Any context object (e.g. the global {@link Application} or an
+     *                    {@link Activity}).
+     * @param viewManager The {@link ViewManager} instance.
+     */
+    @MainThread
+    ActivityTracker(@NonNull final Context context, @NonNull final ViewManager viewManager) {
+        final Context applicationContext = context.getApplicationContext();
+        mApplication = applicationContext instanceof Application ? (Application) applicationContext : null;
+        mEnabled = false;
+        mViewManager = viewManager;
+    }
+
+    /**
+     * Gets a value indicating whether the lifecycle callbacks have been registered.
+     *
+     * @return {@code true} if the lifecycle callbacks have been registered.
+     */
+    @CheckResult
+    @MainThread
+    boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Registers or unregisters the lifecycle callbacks.
+     *
+     * @param enabled {@code true} to register the lifecycle callbacks.
+     */
+    @MainThread
+    void setEnabled(final boolean enabled) {
+        if (mEnabled == enabled) {
+            return;
+        }
+
+        if (mApplication == null) {
+            Log.e(TAG, "The application context is not available; activities are tracked by fragments");
+            return;
+        }
+
+        mEnabled = enabled;
+        if (enabled) {
+            mApplication.registerActivityLifecycleCallbacks(this);
+        } else {
+            mApplication.unregisterActivityLifecycleCallbacks(this);
+        }
+    }
+
+    @MainThread
+    @Override
+    public void onActivityCreated(@NonNull final Activity activity, @Nullable final Bundle savedInstanceState) {
+    }
+
+    @MainThread
+    @Override
+    public void onActivityDestroyed(@NonNull final Activity activity) {
+    }
+
+    @MainThread
+    @Override
+    public void onActivityPaused(@NonNull final Activity activity) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "onActivityPaused");
+        }
+
+        mViewManager.onActivityPaused(activity);
+    }
+
+    @MainThread
+    @Override
+    public void onActivityResumed(@NonNull final Activity activity) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "onActivityResumed");
+        }
+
+        mViewManager.onActivityResumed(activity);
+    }
+
+    @MainThread
+    @Override
+    public void onActivitySaveInstanceState(@NonNull final Activity activity, @NonNull final Bundle outState) {
+    }
+
+    @MainThread
+    @Override
+    public void onActivityStarted(@NonNull final Activity activity) {
+    }
+
+    @MainThread
+    @Override
+    public void onActivityStopped(@NonNull final Activity activity) {
+    }
+}
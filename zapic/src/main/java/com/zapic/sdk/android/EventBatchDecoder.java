@@ -0,0 +1,167 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Decodes a batch of gameplay events from a binary buffer (see {@link Zapic#submitEvents}).
+ * <p>
+ * The buffer is read with its current byte order from its position to its limit. It contains an
+ * event count followed by the events. Each event contains a parameter count followed by the
+ * parameters. Each parameter contains a key, a type, and a value:
+ * <ul>
+ * <li>counts and string lengths are 32-bit integers</li>
+ * <li>keys and string values are a length (in bytes) followed by UTF-8 bytes</li>
+ * <li>types are a single byte: {@link #TYPE_BOOLEAN}, {@link #TYPE_LONG}, {@link #TYPE_DOUBLE},
+ * or {@link #TYPE_STRING}</li>
+ * <li>boolean values are a single byte ({@code 0} is {@code false})</li>
+ * <li>long and double values are 64-bit</li>
+ * </ul>
+ * The event messages are built directly from the decoded values, so the events are not serialized,
+ * parsed, or validated as JSON.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class EventBatchDecoder {
+    /**
+     * Identifies a boolean value.
+     */
+    static final byte TYPE_BOOLEAN = 0;
+
+    /**
+     * Identifies a 64-bit floating point value.
+     */
+    static final byte TYPE_DOUBLE = 2;
+
+    /**
+     * Identifies a 64-bit integer value.
+     */
+    static final byte TYPE_LONG = 1;
+
+    /**
+     * Identifies a UTF-8 string value.
+     */
+    static final byte TYPE_STRING = 3;
+
+    /**
+     * Prevents creating a new {@link EventBatchDecoder} instance.
+     */
+    private EventBatchDecoder() {
+    }
+
+    /**
+     * Decodes a batch of gameplay events. The buffer's position is advanced past the decoded
+     * events. Events without parameters are skipped.
+     *
+     * @param buffer The buffer. If the batch cannot be decoded, its position is not changed.
+     * @return The gameplay event messages.
+     * @throws IllegalArgumentException If the buffer is malformed or contains a value that cannot
+     *                                  be represented in JSON (e.g. {@code NaN}).
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    static ArrayList<JSONObject> decode(@NonNull final ByteBuffer buffer) {
+        // This reads a duplicate so that the buffer's position is only advanced on success.
+        final ByteBuffer reader = buffer.duplicate().order(buffer.order());
+        final ArrayList<JSONObject> messages = decodeMessages(reader);
+        buffer.position(reader.position());
+        return messages;
+    }
+
+    /**
+     * Decodes a batch of gameplay events.
+     *
+     * @param buffer The buffer.
+     * @return The gameplay event messages.
+     * @throws IllegalArgumentException If the buffer is malformed or contains a value that cannot
+     *                                  be represented in JSON (e.g. {@code NaN}).
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static ArrayList<JSONObject> decodeMessages(@NonNull final ByteBuffer buffer) {
+        try {
+            final int eventCount = readCount(buffer);
+            final ArrayList<JSONObject> messages = new ArrayList<>(eventCount);
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < eventCount; i++) {
+                final int parameterCount = readCount(buffer);
+                final JSONObject parameters = new JSONObject();
+                for (int j = 0; j < parameterCount; j++) {
+                    final int keyLength = readCount(buffer);
+                    if (scratch.length < keyLength) {
+                        scratch = new byte[keyLength];
+                    }
+
+                    buffer.get(scratch, 0, keyLength);
+                    final String key = new String(scratch, 0, keyLength, StandardCharsets.UTF_8);
+                    final byte type = buffer.get();
+                    switch (type) {
+                        case TYPE_BOOLEAN:
+                            parameters.put(key, buffer.get() != 0);
+                            break;
+                        case TYPE_LONG:
+                            parameters.put(key, buffer.getLong());
+                            break;
+                        case TYPE_DOUBLE:
+                            parameters.put(key, buffer.getDouble());
+                            break;
+                        case TYPE_STRING:
+                            final int valueLength = readCount(buffer);
+                            if (scratch.length < valueLength) {
+                                scratch = new byte[valueLength];
+                            }
+
+                            buffer.get(scratch, 0, valueLength);
+                            parameters.put(key, new String(scratch, 0, valueLength, StandardCharsets.UTF_8));
+                            break;
+                        default:
+                            throw new IllegalArgumentException(String.format("events contains an unknown type (%d for \"%s\")", type, key));
+                    }
+                }
+
+                if (parameters.length() > 0) {
+                    messages.add(new JSONObject()
+                            .put("type", "gameplay")
+                            .put("params", parameters));
+                }
+            }
+
+            return messages;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("events ends unexpectedly");
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("events contains a value that is not supported (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Reads a count or length.
+     *
+     * @param buffer The buffer.
+     * @return The count or length.
+     * @throws IllegalArgumentException If the count or length is negative or exceeds the remaining
+     *                                  bytes.
+     */
+    @AnyThread
+    @CheckResult
+    private static int readCount(@NonNull final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("events contains an invalid count or length");
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,165 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.ArrayDeque;
+
+/**
+ * Spreads non-urgent UI thread work across frames.
+ * <p>
+ * Tasks are queued and run from a {@link Choreographer} frame callback. Each frame runs queued
+ * tasks (in order) until the per-frame budget is spent; the remaining tasks wait for the next
+ * frame. At least one task runs in each frame so the queue always drains. The number of frames
+ * consumed, the time spent in each frame, and the number of tasks run in each frame are recorded
+ * by the {@link MetricsRecorder}.
+ * <p>
+ * Work that the player is waiting for (e.g. opening or closing a page) should not be scheduled.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class FrameScheduler {
+    /**
+     * The default per-frame budget (in nanoseconds).
+     */
+    static final long DEFAULT_BUDGET = 4000000;
+
+    /**
+     * The {@link Choreographer} instance of the UI thread.
+     */
+    @NonNull
+    private final Choreographer mChoreographer;
+
+    /**
+     * The frame callback that runs queued tasks.
+     */
+    @NonNull
+    private final Choreographer.FrameCallback mFrameCallback;
+
+    /**
+     * The {@link MetricsRecorder} instance.
+     */
+    @NonNull
+    private final MetricsRecorder mMetricsRecorder;
+
+    /**
+     * The queued tasks.
+     */
+    @NonNull
+    private final ArrayDeque<Runnable> mTasks;
+
+    /**
+     * The per-frame budget (in nanoseconds) or {@code 0} if tasks run immediately.
+     */
+    private volatile long mBudget;
+
+    /**
+     * A value indicating whether the frame callback has been posted.
+     */
+    private boolean mFrameCallbackPosted;
+
+    /**
+     * A value indicating whether queued tasks are being run immediately.
+     */
+    private boolean mRunning;
+
+    /**
+     * Creates a new {@link FrameScheduler} instance.
+     *
+     * @param metricsRecorder The {@link MetricsRecorder} instance.
+     */
+    @MainThread
+    FrameScheduler(@NonNull final MetricsRecorder metricsRecorder) {
+        mBudget = DEFAULT_BUDGET;
+        mChoreographer = Choreographer.getInstance();
+        mFrameCallback = new Choreographer.FrameCallback() {
+            @MainThread
+            @Override
+            public void doFrame(final long frameTimeNanos) {
+                onFrame();
+            }
+        };
+        mFrameCallbackPosted = false;
+        mMetricsRecorder = metricsRecorder;
+        mRunning = false;
+        mTasks = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues a task to run in an upcoming frame. If the budget is {@code 0}, the task (and any
+     * previously queued tasks) runs immediately.
+     *
+     * @param task The task.
+     */
+    @MainThread
+    void post(@NonNull final Runnable task) {
+        mTasks.offer(task);
+        if (mBudget == 0) {
+            // Tasks posted by a running task are run by the outer loop instead of recursively.
+            if (!mRunning) {
+                mRunning = true;
+                try {
+                    Runnable queuedTask;
+                    while ((queuedTask = mTasks.poll()) != null) {
+                        queuedTask.run();
+                    }
+                } finally {
+                    mRunning = false;
+                }
+            }
+
+            return;
+        }
+
+        if (!mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            mChoreographer.postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Sets the per-frame budget.
+     *
+     * @param budget The per-frame budget (in nanoseconds) or {@code 0} to run tasks immediately.
+     */
+    @AnyThread
+    void setBudget(final long budget) {
+        mBudget = budget;
+    }
+
+    /**
+     * Runs queued tasks until the per-frame budget is spent.
+     */
+    @MainThread
+    private void onFrame() {
+        mFrameCallbackPosted = false;
+
+        final long budget = mBudget;
+        final long startTime = System.nanoTime();
+        long taskCount = 0;
+        while (true) {
+            final Runnable task = mTasks.poll();
+            if (task == null) {
+                break;
+            }
+
+            task.run();
+            taskCount++;
+            if (budget != 0 && System.nanoTime() - startTime >= budget) {
+                break;
+            }
+        }
+
+        if (taskCount > 0) {
+            mMetricsRecorder.recordFrame(taskCount, System.nanoTime() - startTime);
+        }
+
+        if (!mTasks.isEmpty() && !mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            mChoreographer.postFrameCallback(mFrameCallback);
+        }
+    }
+}
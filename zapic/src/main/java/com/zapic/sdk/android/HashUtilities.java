@@ -0,0 +1,112 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Provides utility methods to name content by its hash.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class HashUtilities {
+    /**
+     * The size (in bytes) of the buffer used to read streams.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Prevents creating a new {@link HashUtilities} instance.
+     */
+    private HashUtilities() {
+    }
+
+    /**
+     * Calculates the SHA-1 hash of the specified bytes.
+     *
+     * @param bytes The bytes.
+     * @return The hexadecimal SHA-1 hash or {@code null} if SHA-1 is not available.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    static String sha1(@NonNull final byte[] bytes) {
+        final MessageDigest digest = createDigest();
+        if (digest == null) {
+            return null;
+        }
+
+        return toHexString(digest.digest(bytes));
+    }
+
+    /**
+     * Calculates the SHA-1 hash of the remaining bytes of the specified stream. The stream is read
+     * to its end but is not closed.
+     * <p>
+     * This is a potentially long-running, blocking task and must be invoked on a background thread.
+     *
+     * @param stream The stream.
+     * @return The hexadecimal SHA-1 hash or {@code null} if SHA-1 is not available.
+     * @throws IOException If an error occurs reading the stream.
+     */
+    @CheckResult
+    @Nullable
+    @WorkerThread
+    static String sha1(@NonNull final InputStream stream) throws IOException {
+        final MessageDigest digest = createDigest();
+        if (digest == null) {
+            return null;
+        }
+
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        while ((length = stream.read(buffer)) != -1) {
+            digest.update(buffer, 0, length);
+        }
+
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * Creates a SHA-1 message digest.
+     *
+     * @return The message digest or {@code null} if SHA-1 is not available.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a digest to a lowercase hexadecimal string.
+     *
+     * @param digest The digest.
+     * @return The hexadecimal string.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static String toHexString(@NonNull final byte[] digest) {
+        final StringBuilder builder = new StringBuilder(digest.length * 2);
+        for (final byte b : digest) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,259 @@
+package com.zapic.sdk.android;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+
+/**
+ * Decodes notification message icons directly to the size they are rendered.
+ * <p>
+ * The icon bounds are read first. The icon is then decoded with {@code inSampleSize} (to skip
+ * pixels that would be discarded) and {@code inDensity}/{@code inTargetDensity} (to scale the
+ * remaining pixels, with filtering, to {@code alerter_alert_icn_size}), so a full-resolution
+ * bitmap is never allocated.
+ * <p>
+ * Decoded icons are kept in a memory-bounded LRU cache keyed by a SHA-1 hash of the encoded bytes,
+ * so a burst of notification messages with the same icon costs one decode. Icons that are evicted
+ * from the cache (and are no longer shown) are returned to a small pool and their memory is reused
+ * by later decodes through {@code inBitmap}.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class IconDecoder {
+    /**
+     * The maximum size (in bytes) of the decoded icons kept in the cache.
+     */
+    private static final int MAX_CACHE_SIZE = 1024 * 1024;
+
+    /**
+     * The maximum number of bitmaps kept for reuse.
+     */
+    private static final int MAX_POOL_SIZE = 2;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "IconDecoder";
+
+    /**
+     * The decoded icons, by the hash of the encoded bytes.
+     */
+    @NonNull
+    private final LruCache<String, Bitmap> mCache;
+
+    /**
+     * The bitmaps available for reuse.
+     */
+    @NonNull
+    private final ArrayList<Bitmap> mPool;
+
+    /**
+     * The size (in pixels) of the shortest side of a decoded icon.
+     */
+    private final int mSize;
+
+    /**
+     * The icon that is shown or {@code null} if an icon is not shown.
+     */
+    @Nullable
+    private Bitmap mShownIcon;
+
+    /**
+     * Creates a new {@link IconDecoder} instance.
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     */
+    @MainThread
+    IconDecoder(@NonNull final Context context) {
+        mCache = new LruCache<String, Bitmap>(MAX_CACHE_SIZE) {
+            @MainThread
+            @Override
+            protected void entryRemoved(final boolean evicted, @NonNull final String key, @NonNull final Bitmap oldValue, @Nullable final Bitmap newValue) {
+                if (oldValue != mShownIcon) {
+                    addToPool(oldValue);
+                }
+            }
+
+            @MainThread
+            @Override
+            protected int sizeOf(@NonNull final String key, @NonNull final Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+        mPool = new ArrayList<>();
+        mShownIcon = null;
+        mSize = context.getResources().getDimensionPixelSize(R.dimen.alerter_alert_icn_size);
+    }
+
+    /**
+     * Calculates the largest power of two sample size that keeps the shortest side of the icon at
+     * least {@code size} pixels.
+     *
+     * @param shortestSide The shortest side (in pixels) of the encoded icon.
+     * @param size         The size (in pixels) of the shortest side of the decoded icon.
+     * @return The sample size.
+     */
+    @CheckResult
+    private static int calculateSampleSize(final int shortestSide, final int size) {
+        int sampleSize = 1;
+        while (shortestSide / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+
+        return sampleSize;
+    }
+
+    /**
+     * Decodes an icon that is about to be shown. The icon is returned from the cache if the same
+     * encoded icon has already been decoded. {@link #release(Bitmap)} must be invoked after the
+     * icon is no longer shown.
+     *
+     * @param bytes The encoded icon.
+     * @return The decoded icon or {@code null} if the icon could not be decoded.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    Bitmap decode(@NonNull final byte[] bytes) {
+        final String key = HashUtilities.sha1(bytes);
+        Bitmap icon = key == null ? null : mCache.get(key);
+        if (icon == null) {
+            icon = decodeBitmap(bytes);
+            if (icon != null && key != null) {
+                mCache.put(key, icon);
+            }
+        }
+
+        mShownIcon = icon;
+        return icon;
+    }
+
+    /**
+     * Releases an icon that is no longer shown. If the icon has been evicted from the cache, it is
+     * returned to the pool and must not be used after this is invoked.
+     *
+     * @param icon The icon.
+     */
+    @MainThread
+    void release(@NonNull final Bitmap icon) {
+        if (icon == mShownIcon) {
+            mShownIcon = null;
+        }
+
+        if (!mCache.snapshot().containsValue(icon)) {
+            addToPool(icon);
+        }
+    }
+
+    /**
+     * Evicts all decoded icons from the cache and empties the pool. The icon that is shown is
+     * kept until it is released.
+     */
+    @MainThread
+    void trimMemory() {
+        mCache.evictAll();
+        mPool.clear();
+    }
+
+    /**
+     * Adds a bitmap that is no longer used to the pool.
+     *
+     * @param bitmap The bitmap.
+     */
+    @MainThread
+    private void addToPool(@NonNull final Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled() || mPool.contains(bitmap)) {
+            return;
+        }
+
+        if (mPool.size() < MAX_POOL_SIZE) {
+            mPool.add(bitmap);
+        }
+    }
+
+    /**
+     * Decodes an icon to the size it is rendered.
+     *
+     * @param bytes The encoded icon.
+     * @return The decoded icon or {@code null} if the icon could not be decoded.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    private Bitmap decodeBitmap(@NonNull final byte[] bytes) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            Log.e(TAG, "The icon could not be decoded");
+            return null;
+        }
+
+        final int shortestSide = Math.min(options.outWidth, options.outHeight);
+        final int sampleSize = calculateSampleSize(shortestSide, mSize);
+        final int sampledShortestSide = shortestSide / sampleSize;
+
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inSampleSize = sampleSize;
+        if (sampledShortestSide != mSize) {
+            options.inDensity = sampledShortestSide;
+            options.inScaled = true;
+            options.inTargetDensity = mSize;
+        } else {
+            options.inScaled = false;
+        }
+
+        // This mirrors the decoder's rounding of the scaled dimensions.
+        final float scale = options.inScaled ? (float) mSize / sampledShortestSide : 1f;
+        final int width = (int) (options.outWidth / sampleSize * scale + 0.5f);
+        final int height = (int) (options.outHeight / sampleSize * scale + 0.5f);
+        options.inBitmap = takeFromPool(width * height * 4);
+        try {
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not be reused.
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        }
+    }
+
+    /**
+     * Removes the smallest pooled bitmap that can hold the specified number of bytes.
+     *
+     * @param byteCount The number of bytes.
+     * @return The pooled bitmap or {@code null} if a pooled bitmap is not large enough.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    private Bitmap takeFromPool(final int byteCount) {
+        Bitmap bestBitmap = null;
+        for (final Bitmap bitmap : mPool) {
+            final int allocationByteCount = bitmap.getAllocationByteCount();
+            if (allocationByteCount >= byteCount && (bestBitmap == null || allocationByteCount < bestBitmap.getAllocationByteCount())) {
+                bestBitmap = bitmap;
+            }
+        }
+
+        if (bestBitmap != null) {
+            mPool.remove(bestBitmap);
+        }
+
+        return bestBitmap;
+    }
+}
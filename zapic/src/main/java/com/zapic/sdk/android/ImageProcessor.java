@@ -0,0 +1,364 @@
+package com.zapic.sdk.android;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v4.content.FileProvider;
+import android.util.Log;
+import android.webkit.ValueCallback;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Prepares images chosen by the player (e.g. for a profile picture) before they are returned to
+ * the Zapic web page.
+ * <p>
+ * Camera and gallery images are often full-resolution photos. Each image is decoded in the
+ * background with {@code inSampleSize} (after reading its bounds), rotated to match its EXIF
+ * orientation, scaled to the maximum dimension, and re-encoded (JPEG, or WebP if the image has
+ * transparency) to the share folder. The Zapic web page receives the URI of the processed image.
+ * If the image cannot be processed (including if there is not enough memory to decode it), the
+ * Zapic web page receives the original URI.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class ImageProcessor {
+    /**
+     * The default maximum width and height (in pixels) of a processed image.
+     */
+    static final int DEFAULT_MAX_DIMENSION = 1024;
+
+    /**
+     * The default quality of a processed image.
+     */
+    static final int DEFAULT_QUALITY = 85;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "ImageProcessor";
+
+    /**
+     * The global application context.
+     */
+    @NonNull
+    private final Context mApplicationContext;
+
+    /**
+     * The handler used to return processed images to the UI thread.
+     */
+    @NonNull
+    private final Handler mHandler;
+
+    /**
+     * The maximum width and height (in pixels) of a processed image.
+     */
+    private volatile int mMaxDimension;
+
+    /**
+     * The quality (between {@code 0} and {@code 100}) of a processed image.
+     */
+    private volatile int mQuality;
+
+    /**
+     * Creates a new {@link ImageProcessor} instance.
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     */
+    @MainThread
+    ImageProcessor(@NonNull final Context context) {
+        mApplicationContext = context.getApplicationContext();
+        mHandler = new Handler(Looper.getMainLooper());
+        mMaxDimension = DEFAULT_MAX_DIMENSION;
+        mQuality = DEFAULT_QUALITY;
+    }
+
+    /**
+     * Calculates the largest power of two sample size that keeps the longest side of the image at
+     * least {@code maxDimension} pixels.
+     *
+     * @param longestSide  The longest side (in pixels) of the encoded image.
+     * @param maxDimension The maximum width and height (in pixels) of the processed image.
+     * @return The sample size.
+     */
+    @AnyThread
+    @CheckResult
+    private static int calculateSampleSize(final int longestSide, final int maxDimension) {
+        int sampleSize = 1;
+        while (longestSide / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+
+        return sampleSize;
+    }
+
+    /**
+     * Processes an image in the background and returns the URI of the processed image to the
+     * callback on the UI thread.
+     *
+     * @param imageUri  The image URI.
+     * @param imageFile The file that backs {@code imageUri} (e.g. a camera capture in the share
+     *                  folder) or {@code null} if it is not known. This is deleted if a processed
+     *                  image replaces it.
+     * @param callback  The callback.
+     */
+    @MainThread
+    void process(@NonNull final Uri imageUri, @Nullable final File imageFile, @NonNull final ValueCallback<Uri[]> callback) {
+        final int maxDimension = mMaxDimension;
+        final int quality = mQuality;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            @WorkerThread
+            public void run() {
+                Uri processedImageUri;
+                try {
+                    processedImageUri = processImage(imageUri, imageFile, maxDimension, quality);
+                } catch (IOException | SecurityException e) {
+                    Log.e(TAG, "Failed to process the image", e);
+                    processedImageUri = null;
+                } catch (OutOfMemoryError e) {
+                    Log.e(TAG, "Failed to allocate the processed image", e);
+                    processedImageUri = null;
+                }
+
+                if (processedImageUri == null) {
+                    processedImageUri = imageUri;
+                } else if (imageFile != null && !processedImageUri.equals(imageUri) && !imageFile.delete()) {
+                    Log.e(TAG, "Failed to delete the original image");
+                }
+
+                final Uri resultImageUri = processedImageUri;
+                mHandler.post(new Runnable() {
+                    @MainThread
+                    @Override
+                    public void run() {
+                        callback.onReceiveValue(new Uri[]{resultImageUri});
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the limits of processed images.
+     *
+     * @param maxDimension The maximum width and height (in pixels) of a processed image.
+     * @param quality      The quality (between {@code 0} and {@code 100}) of a processed image.
+     */
+    @AnyThread
+    void setLimits(final int maxDimension, final int quality) {
+        mMaxDimension = maxDimension;
+        mQuality = quality;
+    }
+
+    /**
+     * Decodes the bounds of an image.
+     *
+     * @param imageUri The image URI.
+     * @return The options with the image bounds and mime-type.
+     * @throws IOException If an error occurs reading the image.
+     */
+    @CheckResult
+    @NonNull
+    @WorkerThread
+    private BitmapFactory.Options decodeBounds(@NonNull final Uri imageUri) throws IOException {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        final InputStream stream = openInputStream(imageUri);
+        try {
+            BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+
+        return options;
+    }
+
+    /**
+     * Opens an image.
+     *
+     * @param imageUri The image URI.
+     * @return The image stream.
+     * @throws IOException If the image cannot be opened.
+     */
+    @CheckResult
+    @NonNull
+    @WorkerThread
+    private InputStream openInputStream(@NonNull final Uri imageUri) throws IOException {
+        final InputStream stream = mApplicationContext.getContentResolver().openInputStream(imageUri);
+        if (stream == null) {
+            throw new IOException("The image cannot be opened");
+        }
+
+        return stream;
+    }
+
+    /**
+     * Processes an image.
+     *
+     * @param imageUri     The image URI.
+     * @param imageFile    The file that backs {@code imageUri} or {@code null} if it is not known.
+     * @param maxDimension The maximum width and height (in pixels) of the processed image.
+     * @param quality      The quality of the processed image.
+     * @return The URI of the processed image, {@code imageUri} if the image does not need to be
+     * processed, or {@code null} if the image cannot be decoded.
+     * @throws IOException If an error occurs reading or writing the image.
+     */
+    @CheckResult
+    @Nullable
+    @WorkerThread
+    private Uri processImage(@NonNull final Uri imageUri, @Nullable final File imageFile, final int maxDimension, final int quality) throws IOException {
+        final BitmapFactory.Options options = decodeBounds(imageUri);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            Log.e(TAG, "The image could not be decoded");
+            return null;
+        }
+
+        final int longestSide = Math.max(options.outWidth, options.outHeight);
+        final int rotation = readRotation(imageUri, imageFile);
+        final boolean compressed = "image/jpeg".equals(options.outMimeType) || "image/webp".equals(options.outMimeType);
+        if (longestSide <= maxDimension && rotation == 0 && compressed) {
+            return imageUri;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateSampleSize(longestSide, maxDimension);
+        Bitmap bitmap;
+        final InputStream stream = openInputStream(imageUri);
+        try {
+            bitmap = BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+
+        if (bitmap == null) {
+            Log.e(TAG, "The image could not be decoded");
+            return null;
+        }
+
+        try {
+            final int sampledLongestSide = Math.max(bitmap.getWidth(), bitmap.getHeight());
+            if (sampledLongestSide > maxDimension || rotation != 0) {
+                final Matrix matrix = new Matrix();
+                if (sampledLongestSide > maxDimension) {
+                    final float scale = (float) maxDimension / sampledLongestSide;
+                    matrix.postScale(scale, scale);
+                }
+
+                matrix.postRotate(rotation);
+                final Bitmap transformedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+                if (transformedBitmap != bitmap) {
+                    bitmap.recycle();
+                    bitmap = transformedBitmap;
+                }
+            }
+
+            return saveImage(bitmap, quality);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation of an image.
+     * <p>
+     * Before Android 7.0, the EXIF orientation can only be read from a file, so it is only read
+     * if the file that backs the image is known.
+     *
+     * @param imageUri  The image URI.
+     * @param imageFile The file that backs {@code imageUri} or {@code null} if it is not known.
+     * @return The clockwise rotation (in degrees) that displays the image upright.
+     */
+    @CheckResult
+    @WorkerThread
+    private int readRotation(@NonNull final Uri imageUri, @Nullable final File imageFile) {
+        final ExifInterface exif;
+        try {
+            if (imageFile != null) {
+                exif = new ExifInterface(imageFile.getAbsolutePath());
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                final InputStream stream = openInputStream(imageUri);
+                try {
+                    exif = new ExifInterface(stream);
+                } finally {
+                    stream.close();
+                }
+            } else {
+                return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+
+        switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Encodes an image to the share folder.
+     *
+     * @param bitmap  The image.
+     * @param quality The quality of the encoded image.
+     * @return The URI of the encoded image.
+     * @throws IOException If an error occurs writing the image.
+     */
+    @CheckResult
+    @NonNull
+    @WorkerThread
+    private Uri saveImage(@NonNull final Bitmap bitmap, final int quality) throws IOException {
+        final File imageDirectory = new File(mApplicationContext.getCacheDir(), "Zapic" + File.separator + "Share");
+        if (!imageDirectory.isDirectory() && !imageDirectory.mkdirs()) {
+            throw new IOException("The image share folder does not exist and cannot be created");
+        }
+
+        final boolean hasAlpha = bitmap.hasAlpha();
+        final File imageFile = File.createTempFile("IMG_", hasAlpha ? ".webp" : ".jpg", imageDirectory);
+        final OutputStream stream = new FileOutputStream(imageFile);
+        try {
+            if (!bitmap.compress(hasAlpha ? Bitmap.CompressFormat.WEBP : Bitmap.CompressFormat.JPEG, quality, stream)) {
+                throw new IOException("The image could not be encoded");
+            }
+        } catch (IOException e) {
+            if (!imageFile.delete()) {
+                Log.e(TAG, "Failed to delete the partially written image");
+            }
+
+            throw e;
+        } finally {
+            stream.close();
+        }
+
+        final String packageName = mApplicationContext.getPackageName();
+        return FileProvider.getUriForFile(mApplicationContext, packageName + ".zapic", imageFile);
+    }
+}
@@ -0,0 +1,162 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+/**
+ * Provides utility methods to read values from a {@link JsonReader} without first building a
+ * complete {@link JSONObject} tree.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class JsonReaderUtilities {
+    /**
+     * Prevents creating a new {@link JsonReaderUtilities} instance.
+     */
+    private JsonReaderUtilities() {
+    }
+
+    /**
+     * Reads the next value as a string. Numbers and booleans are converted to strings.
+     * <p>
+     * This consumes (and ignores) the next value if it is an array or an object.
+     *
+     * @param reader The reader.
+     * @return The string or {@code null} if the next value is {@code null}, an array, or an object.
+     * @throws IOException If an error occurs reading the next value.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    static String nextStringOrNull(@NonNull final JsonReader reader) throws IOException {
+        final JsonToken token = reader.peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Reads the next value as a {@link JSONObject}.
+     * <p>
+     * This consumes (and ignores) the next value if it is not an object.
+     *
+     * @param reader The reader.
+     * @return The {@link JSONObject} or {@code null} if the next value is not an object.
+     * @throws IOException If an error occurs reading the next value.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    static JSONObject nextJSONObjectOrNull(@NonNull final JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        return readJSONObject(reader);
+    }
+
+    /**
+     * Reads the next value as a {@link JSONArray}.
+     *
+     * @param reader The reader.
+     * @return The {@link JSONArray}.
+     * @throws IOException If an error occurs reading the next value.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static JSONArray readJSONArray(@NonNull final JsonReader reader) throws IOException {
+        final JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readJSONValue(reader));
+        }
+
+        reader.endArray();
+        return array;
+    }
+
+    /**
+     * Reads the next value as a {@link JSONObject}.
+     *
+     * @param reader The reader.
+     * @return The {@link JSONObject}.
+     * @throws IOException If an error occurs reading the next value.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static JSONObject readJSONObject(@NonNull final JsonReader reader) throws IOException {
+        final JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            try {
+                object.put(name, readJSONValue(reader));
+            } catch (JSONException e) {
+                throw new IOException(e);
+            }
+        }
+
+        reader.endObject();
+        return object;
+    }
+
+    /**
+     * Reads the next value as a {@link JSONArray}, a {@link JSONObject}, a boxed primitive, a
+     * string, or {@link JSONObject#NULL}.
+     *
+     * @param reader The reader.
+     * @return The value.
+     * @throws IOException If an error occurs reading the next value.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static Object readJSONValue(@NonNull final JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                return readJSONArray(reader);
+            case BEGIN_OBJECT:
+                return readJSONObject(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            case NUMBER:
+                final String number = reader.nextString();
+                try {
+                    final long value = Long.parseLong(number, 10);
+                    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                        return (int) value;
+                    }
+
+                    return value;
+                } catch (NumberFormatException ignored) {
+                    return Double.parseDouble(number);
+                }
+            default:
+                return reader.nextString();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.zapic.sdk.android;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 /**
  * Provides references to the {@link SessionManager}, {@link ViewManager}, and
@@ -23,9 +24,10 @@ final class Managers {
     private final ViewManager mViewManager;
 
     /**
-     * The {@link WebViewManager} instance.
+     * The {@link WebViewManager} instance or {@code null} if the {@link android.webkit.WebView}
+     * runs in a separate process.
      */
-    @NonNull
+    @Nullable
     private final WebViewManager mWebViewManager;
 
     /**
@@ -33,9 +35,10 @@ final class Managers {
      *
      * @param sessionManager The {@link SessionManager} instance.
      * @param viewManager    The {@link ViewManager} instance.
-     * @param webViewManager The {@link WebViewManager} instance.
+     * @param webViewManager The {@link WebViewManager} instance or {@code null} if the
+     *                       {@link android.webkit.WebView} runs in a separate process.
      */
-    Managers(@NonNull final SessionManager sessionManager, @NonNull final ViewManager viewManager, @NonNull final WebViewManager webViewManager) {
+    Managers(@NonNull final SessionManager sessionManager, @NonNull final ViewManager viewManager, @Nullable final WebViewManager webViewManager) {
         mSessionManager = sessionManager;
         mViewManager = viewManager;
         mWebViewManager = webViewManager;
@@ -64,9 +67,10 @@ ViewManager getViewManager() {
     /**
      * Gets the {@link WebViewManager} instance.
      *
-     * @return The {@link WebViewManager} instance.
+     * @return The {@link WebViewManager} instance or {@code null} if the
+     *         {@link android.webkit.WebView} runs in a separate process.
      */
-    @NonNull
+    @Nullable
     WebViewManager getWebViewManager() {
         return mWebViewManager;
     }
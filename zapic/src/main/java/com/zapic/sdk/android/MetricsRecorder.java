@@ -0,0 +1,399 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the metrics of the messages exchanged between the game and the Zapic web page.
+ * <p>
+ * Recording is synchronized, but only updates a few counters for each value. A snapshot may be
+ * taken at any time with {@link #getMetrics()}.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class MetricsRecorder {
+    /**
+     * The number of histogram buckets. This covers all non-negative {@code long} values.
+     */
+    private static final int BUCKET_COUNT = 64;
+
+    /**
+     * The type used to record images received through the binary side channel.
+     */
+    @NonNull
+    static final String TYPE_IMAGE = "IMAGE";
+
+    /**
+     * The type used to record invalid messages.
+     */
+    @NonNull
+    static final String TYPE_INVALID = "INVALID";
+
+    /**
+     * The number of deferred tasks run in each frame.
+     */
+    @NonNull
+    private final HistogramRecorder mDeferredTaskCount;
+
+    /**
+     * The time spent running deferred tasks in each frame.
+     */
+    @NonNull
+    private final HistogramRecorder mDeferredWorkTime;
+
+    /**
+     * The listener that is notified after each message has been handled.
+     */
+    @Nullable
+    private volatile ZapicMetricsListener mListener;
+
+    /**
+     * A synchronization lock for {@link #mDeferredTaskCount}, {@link #mDeferredWorkTime},
+     * {@link #mReceived}, {@link #mRecoveryTime}, and {@link #mSent}.
+     */
+    @NonNull
+    private final Object mLock;
+
+    /**
+     * The received message metrics, by type.
+     */
+    @NonNull
+    private final HashMap<String, MessageRecorder> mReceived;
+
+    /**
+     * The recovery times, by memory pressure tier.
+     */
+    @NonNull
+    private final HashMap<String, HistogramRecorder> mRecoveryTime;
+
+    /**
+     * The sent message metrics, by type.
+     */
+    @NonNull
+    private final HashMap<String, MessageRecorder> mSent;
+
+    /**
+     * Creates a new {@link MetricsRecorder} instance.
+     */
+    @AnyThread
+    MetricsRecorder() {
+        mDeferredTaskCount = new HistogramRecorder();
+        mDeferredWorkTime = new HistogramRecorder();
+        mListener = null;
+        mLock = new Object();
+        mReceived = new HashMap<>();
+        mRecoveryTime = new HashMap<>();
+        mSent = new HashMap<>();
+    }
+
+    /**
+     * Gets a snapshot of the metrics.
+     *
+     * @return The snapshot.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    ZapicMetrics getMetrics() {
+        synchronized (mLock) {
+            final HashMap<String, ZapicMetrics.Histogram> recoveryTime = new HashMap<>();
+            for (Map.Entry<String, HistogramRecorder> entry : mRecoveryTime.entrySet()) {
+                recoveryTime.put(entry.getKey(), entry.getValue().snapshot());
+            }
+
+            return new ZapicMetrics(mDeferredTaskCount.snapshot(), mDeferredWorkTime.snapshot(), snapshot(mReceived), recoveryTime, snapshot(mSent));
+        }
+    }
+
+    /**
+     * Records a received message after it has been decoded.
+     *
+     * @param type       The message type.
+     * @param size       The message size (in bytes).
+     * @param queueTime  The time (in nanoseconds) the message waited to be decoded.
+     * @param decodeTime The time (in nanoseconds) spent decoding the message.
+     */
+    @AnyThread
+    void recordDecoded(@NonNull final String type, final long size, final long queueTime, final long decodeTime) {
+        synchronized (mLock) {
+            final MessageRecorder recorder = getOrCreate(mReceived, type);
+            recorder.mSize.record(size);
+            recorder.mDecodeQueueTime.record(queueTime);
+            recorder.mCodingTime.record(decodeTime);
+        }
+    }
+
+    /**
+     * Records a frame in which deferred tasks were run by the {@link FrameScheduler}.
+     *
+     * @param taskCount The number of tasks run in the frame.
+     * @param workTime  The time (in nanoseconds) spent running the tasks.
+     */
+    @MainThread
+    void recordFrame(final long taskCount, final long workTime) {
+        synchronized (mLock) {
+            mDeferredTaskCount.record(taskCount);
+            mDeferredWorkTime.record(workTime);
+        }
+    }
+
+    /**
+     * Records a received message after it has been handled on the UI thread.
+     *
+     * @param type         The message type.
+     * @param queueTime    The time (in nanoseconds) the message waited to be handled.
+     * @param handlingTime The time (in nanoseconds) spent handling the message.
+     */
+    @MainThread
+    void recordHandled(@NonNull final String type, final long queueTime, final long handlingTime) {
+        synchronized (mLock) {
+            final MessageRecorder recorder = getOrCreate(mReceived, type);
+            recorder.mHandlerQueueTime.record(queueTime);
+            recorder.mHandlingTime.record(handlingTime);
+        }
+
+        final ZapicMetricsListener listener = mListener;
+        if (listener != null) {
+            listener.onMessageHandled(type, true, queueTime, handlingTime);
+        }
+    }
+
+    /**
+     * Records an image received through the binary side channel.
+     *
+     * @param size The image size (in bytes).
+     */
+    @AnyThread
+    void recordImage(final long size) {
+        synchronized (mLock) {
+            getOrCreate(mReceived, TYPE_IMAGE).mSize.record(size);
+        }
+    }
+
+    /**
+     * Records the time spent recovering from a memory pressure tier.
+     *
+     * @param tier         The memory pressure tier.
+     * @param recoveryTime The time (in nanoseconds) spent recovering.
+     */
+    @AnyThread
+    void recordRecovery(@NonNull final String tier, final long recoveryTime) {
+        synchronized (mLock) {
+            HistogramRecorder recorder = mRecoveryTime.get(tier);
+            if (recorder == null) {
+                recorder = new HistogramRecorder();
+                mRecoveryTime.put(tier, recorder);
+            }
+
+            recorder.record(recoveryTime);
+        }
+    }
+
+    /**
+     * Records a sent message.
+     *
+     * @param type         The message type.
+     * @param size         The message size (in bytes).
+     * @param queueTime    The time (in nanoseconds) the message waited to be sent or {@code -1} if
+     *                     it is not known.
+     * @param encodeTime   The time (in nanoseconds) spent encoding the message.
+     * @param handlingTime The time (in nanoseconds) spent passing the message to the
+     *                     {@link android.webkit.WebView}.
+     */
+    @MainThread
+    void recordSent(@NonNull final String type, final long size, final long queueTime, final long encodeTime, final long handlingTime) {
+        synchronized (mLock) {
+            final MessageRecorder recorder = getOrCreate(mSent, type);
+            recorder.mSize.record(size);
+            if (queueTime >= 0) {
+                recorder.mHandlerQueueTime.record(queueTime);
+            }
+
+            recorder.mCodingTime.record(encodeTime);
+            recorder.mHandlingTime.record(handlingTime);
+        }
+
+        final ZapicMetricsListener listener = mListener;
+        if (listener != null) {
+            listener.onMessageHandled(type, false, queueTime, handlingTime);
+        }
+    }
+
+    /**
+     * Sets the listener that is notified after each message has been handled.
+     *
+     * @param listener The listener or {@code null} to unsubscribe a previous listener.
+     */
+    @AnyThread
+    void setListener(@Nullable final ZapicMetricsListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Gets the recorder of the specified message type, creating it if necessary.
+     *
+     * @param recorders The recorders, by type.
+     * @param type      The message type.
+     * @return The recorder.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static MessageRecorder getOrCreate(@NonNull final HashMap<String, MessageRecorder> recorders, @NonNull final String type) {
+        MessageRecorder recorder = recorders.get(type);
+        if (recorder == null) {
+            recorder = new MessageRecorder();
+            recorders.put(type, recorder);
+        }
+
+        return recorder;
+    }
+
+    /**
+     * Takes a snapshot of the specified recorders.
+     *
+     * @param recorders The recorders, by type.
+     * @return The snapshot, by type.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static Map<String, ZapicMetrics.MessageMetrics> snapshot(@NonNull final HashMap<String, MessageRecorder> recorders) {
+        final HashMap<String, ZapicMetrics.MessageMetrics> metrics = new HashMap<>();
+        for (Map.Entry<String, MessageRecorder> entry : recorders.entrySet()) {
+            final MessageRecorder recorder = entry.getValue();
+            metrics.put(entry.getKey(), new ZapicMetrics.MessageMetrics(
+                    recorder.mCodingTime.snapshot(),
+                    recorder.mDecodeQueueTime.snapshot(),
+                    recorder.mHandlerQueueTime.snapshot(),
+                    recorder.mHandlingTime.snapshot(),
+                    recorder.mSize.snapshot()));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Records a distribution of values in exponentially sized buckets.
+     */
+    private static final class HistogramRecorder {
+        /**
+         * The number of values in each bucket.
+         */
+        @NonNull
+        private final long[] mBuckets;
+
+        /**
+         * The number of values.
+         */
+        private long mCount;
+
+        /**
+         * The maximum value.
+         */
+        private long mMax;
+
+        /**
+         * The minimum value.
+         */
+        private long mMin;
+
+        /**
+         * The sum of the values.
+         */
+        private long mSum;
+
+        /**
+         * Creates a new {@link HistogramRecorder} instance.
+         */
+        @AnyThread
+        private HistogramRecorder() {
+            mBuckets = new long[BUCKET_COUNT];
+            mCount = 0;
+            mMax = 0;
+            mMin = 0;
+            mSum = 0;
+        }
+
+        /**
+         * Records a value. Negative values are recorded as {@code 0}.
+         *
+         * @param value The value.
+         */
+        @AnyThread
+        private void record(final long value) {
+            final long clampedValue = Math.max(0, value);
+            mBuckets[clampedValue == 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(clampedValue)]++;
+            mMax = mCount == 0 ? clampedValue : Math.max(mMax, clampedValue);
+            mMin = mCount == 0 ? clampedValue : Math.min(mMin, clampedValue);
+            mCount++;
+            mSum += clampedValue;
+        }
+
+        /**
+         * Takes a snapshot of the recorded values.
+         *
+         * @return The snapshot.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        private ZapicMetrics.Histogram snapshot() {
+            return new ZapicMetrics.Histogram(mBuckets.clone(), mCount, mMax, mMin, mSum);
+        }
+    }
+
+    /**
+     * Records the metrics of a single message type.
+     */
+    private static final class MessageRecorder {
+        /**
+         * The time spent decoding or encoding each message.
+         */
+        @NonNull
+        private final HistogramRecorder mCodingTime;
+
+        /**
+         * The time each received message waited to be decoded.
+         */
+        @NonNull
+        private final HistogramRecorder mDecodeQueueTime;
+
+        /**
+         * The time each message waited to be handled (or sent) on the UI thread.
+         */
+        @NonNull
+        private final HistogramRecorder mHandlerQueueTime;
+
+        /**
+         * The time spent handling each message on the UI thread.
+         */
+        @NonNull
+        private final HistogramRecorder mHandlingTime;
+
+        /**
+         * The size of each message.
+         */
+        @NonNull
+        private final HistogramRecorder mSize;
+
+        /**
+         * Creates a new {@link MessageRecorder} instance.
+         */
+        @AnyThread
+        private MessageRecorder() {
+            mCodingTime = new HistogramRecorder();
+            mDecodeQueueTime = new HistogramRecorder();
+            mHandlerQueueTime = new HistogramRecorder();
+            mHandlingTime = new HistogramRecorder();
+            mSize = new HistogramRecorder();
+        }
+    }
+}
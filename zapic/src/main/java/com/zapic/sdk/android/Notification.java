@@ -1,6 +1,5 @@
 package com.zapic.sdk.android;
 
-import android.graphics.Bitmap;
 import android.support.annotation.AnyThread;
 import android.support.annotation.CheckResult;
 import android.support.annotation.NonNull;
@@ -10,16 +9,31 @@
 
 /**
  * Represents a notification message.
+ * <p>
+ * The image is kept encoded until the notification message is shown (see {@link IconDecoder}).
+ * Queued notification messages with the same group (if the Zapic web page sends one) may be
+ * coalesced into a single notification message (see {@link NotificationQueue}).
  *
  * @author Kyle Dodson
  * @since 1.2.0
  */
 final class Notification {
     /**
-     * The image.
+     * The number of notification messages coalesced into this notification message.
+     */
+    private final int mCoalescedCount;
+
+    /**
+     * The group or {@code null} if the notification message is never coalesced.
+     */
+    @Nullable
+    private final String mGroup;
+
+    /**
+     * The encoded image.
      */
     @Nullable
-    private final Bitmap mImage;
+    private final byte[] mImageBytes;
 
     /**
      * The metadata.
@@ -27,6 +41,11 @@ final class Notification {
     @Nullable
     private final JSONObject mMetadata;
 
+    /**
+     * The priority.
+     */
+    private final int mPriority;
+
     /**
      * The text.
      */
@@ -45,32 +64,93 @@ final class Notification {
      * @param title    The title.
      * @param text     The text. If non-{@code null}, this text is rendered smaller and below
      *                 {@code title}.
-     * @param image    The image. If non-{@code null}, this image is rendered at the start of the
-     *                 view. If {@code null}, the Zapic logo is rendered at the start of the view.
+     * @param image    The encoded image. If non-{@code null}, this image is rendered at the start
+     *                 of the view. If {@code null}, the Zapic logo is rendered at the start of the
+     *                 view.
      * @param metadata The metadata. If non-{@code null}, dispatches an interaction event when the
      *                 notification message is tapped.
+     * @param group    The group. If {@code null}, the notification message is never coalesced.
+     * @param priority The priority. Notification messages with a higher priority are shown first.
+     */
+    @AnyThread
+    Notification(@NonNull final String title, @Nullable final String text, @Nullable final byte[] image, @Nullable final JSONObject metadata, @Nullable final String group, final int priority) {
+        this(title, text, image, metadata, group, priority, 0);
+    }
+
+    /**
+     * Creates a new {@link Notification} instance.
+     *
+     * @param title          The title.
+     * @param text           The text.
+     * @param image          The encoded image.
+     * @param metadata       The metadata.
+     * @param group          The group or {@code null}.
+     * @param priority       The priority.
+     * @param coalescedCount The number of notification messages coalesced into this notification
+     *                       message.
      */
     @AnyThread
-    Notification(@NonNull final String title, @Nullable final String text, @Nullable final Bitmap image, @Nullable final JSONObject metadata) {
-        mImage = image;
+    private Notification(@NonNull final String title, @Nullable final String text, @Nullable final byte[] image, @Nullable final JSONObject metadata, @Nullable final String group, final int priority, final int coalescedCount) {
+        mCoalescedCount = coalescedCount;
+        mGroup = group;
+        mImageBytes = image;
         mMetadata = metadata;
+        mPriority = priority;
         mText = text;
         mTitle = title;
     }
 
     /**
-     * Gets the image.
+     * Creates a copy of this notification message that represents one more coalesced
+     * notification message. The copy has the higher priority of the two notification messages.
+     *
+     * @param notification The coalesced notification message.
+     * @return The copy.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    Notification coalesce(@NonNull final Notification notification) {
+        final int priority = Math.max(mPriority, notification.getPriority());
+        return new Notification(mTitle, mText, mImageBytes, mMetadata, mGroup, priority, mCoalescedCount + notification.getCoalescedCount() + 1);
+    }
+
+    /**
+     * Gets the number of notification messages coalesced into this notification message.
+     *
+     * @return The number of coalesced notification messages.
+     */
+    @AnyThread
+    @CheckResult
+    int getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * Gets the group. Queued notification messages with the same group may be coalesced.
+     *
+     * @return The group or {@code null} if the notification message is never coalesced.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    String getGroup() {
+        return mGroup;
+    }
+
+    /**
+     * Gets the encoded image.
      * <p>
      * If non-{@code null}, this image is rendered at the start of the view. If {@code null}, the
      * Zapic logo is rendered at the start of the view.
      *
-     * @return The image or {@code null}.
+     * @return The encoded image or {@code null}.
      */
     @AnyThread
     @CheckResult
     @Nullable
-    Bitmap getImage() {
-        return mImage;
+    byte[] getImageBytes() {
+        return mImageBytes;
     }
 
     /**
@@ -87,10 +167,23 @@ public JSONObject getMetadata() {
         return mMetadata;
     }
 
+    /**
+     * Gets the priority. Notification messages with a higher priority are shown first.
+     *
+     * @return The priority.
+     */
+    @AnyThread
+    @CheckResult
+    int getPriority() {
+        return mPriority;
+    }
+
     /**
      * Gets the text.
      * <p>
-     * If non-{@code null}, this text is rendered smaller and below the title.
+     * If non-{@code null}, this text is rendered smaller and below the title. If other
+     * notification messages have been coalesced, the number of coalesced notification messages is
+     * appended (e.g. "+5 more").
      *
      * @return The text or {@code null}.
      */
@@ -98,7 +191,12 @@ public JSONObject getMetadata() {
     @CheckResult
     @Nullable
     String getText() {
-        return mText;
+        if (mCoalescedCount == 0) {
+            return mText;
+        }
+
+        final String more = "+" + mCoalescedCount + " more";
+        return mText == null ? more : mText + " (" + more + ")";
     }
 
     /**
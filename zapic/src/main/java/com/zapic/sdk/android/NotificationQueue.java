@@ -0,0 +1,176 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.ArrayList;
+
+/**
+ * A bounded, prioritized queue of notification messages that are waiting to be shown.
+ * <p>
+ * Notification messages are polled by priority (highest first) and then by arrival (oldest first).
+ * If coalescing is enabled, a notification message with the same group as a queued notification
+ * message is merged into it (e.g. "+5 more"). Notification messages without a group (i.e. the
+ * Zapic web page did not send one) are never coalesced, so distinct notification messages that
+ * share a generic title are all shown. If the queue is full, the lowest priority, newest
+ * notification message is dropped. This bounds both the encoded images held in memory and the
+ * time spent showing a burst of notification messages.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class NotificationQueue {
+    /**
+     * The default maximum number of queued notification messages.
+     */
+    static final int DEFAULT_MAX_SIZE = 5;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "NotificationQueue";
+
+    /**
+     * The queued notification messages, in arrival order.
+     */
+    @NonNull
+    private final ArrayList<Notification> mNotifications;
+
+    /**
+     * A value indicating whether queued notification messages with the same group are coalesced.
+     */
+    private boolean mCoalescingEnabled;
+
+    /**
+     * The maximum number of queued notification messages.
+     */
+    private int mMaxSize;
+
+    /**
+     * Creates a new {@link NotificationQueue} instance.
+     */
+    @MainThread
+    NotificationQueue() {
+        mCoalescingEnabled = true;
+        mMaxSize = DEFAULT_MAX_SIZE;
+        mNotifications = new ArrayList<>();
+    }
+
+    /**
+     * Gets a value indicating whether the queue is empty.
+     *
+     * @return {@code true} if the queue is empty.
+     */
+    @CheckResult
+    @MainThread
+    boolean isEmpty() {
+        return mNotifications.isEmpty();
+    }
+
+    /**
+     * Queues a notification message. The notification message may be coalesced with a queued
+     * notification message or dropped if the queue is full.
+     *
+     * @param notification The notification message.
+     */
+    @MainThread
+    void offer(@NonNull final Notification notification) {
+        final String group = notification.getGroup();
+        if (mCoalescingEnabled && group != null) {
+            for (int i = 0; i < mNotifications.size(); i++) {
+                final Notification queuedNotification = mNotifications.get(i);
+                if (group.equals(queuedNotification.getGroup())) {
+                    mNotifications.set(i, queuedNotification.coalesce(notification));
+                    return;
+                }
+            }
+        }
+
+        mNotifications.add(notification);
+        trim();
+    }
+
+    /**
+     * Gets the next notification message without removing it.
+     *
+     * @return The highest priority, oldest notification message or {@code null} if the queue is
+     *         empty.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    Notification peek() {
+        final int index = indexOfNext();
+        return index == -1 ? null : mNotifications.get(index);
+    }
+
+    /**
+     * Removes the next notification message.
+     *
+     * @return The highest priority, oldest notification message or {@code null} if the queue is
+     *         empty.
+     */
+    @MainThread
+    @Nullable
+    Notification poll() {
+        final int index = indexOfNext();
+        return index == -1 ? null : mNotifications.remove(index);
+    }
+
+    /**
+     * Sets the limits of the queue. If the queue holds more than {@code maxSize} notification
+     * messages, the lowest priority, newest notification messages are dropped.
+     *
+     * @param maxSize           The maximum number of queued notification messages.
+     * @param coalescingEnabled {@code true} to coalesce notification messages with the same group.
+     */
+    @MainThread
+    void setLimits(final int maxSize, final boolean coalescingEnabled) {
+        mCoalescingEnabled = coalescingEnabled;
+        mMaxSize = maxSize;
+        trim();
+    }
+
+    /**
+     * Gets the index of the highest priority, oldest notification message.
+     *
+     * @return The index or {@code -1} if the queue is empty.
+     */
+    @CheckResult
+    @MainThread
+    private int indexOfNext() {
+        int index = -1;
+        for (int i = 0; i < mNotifications.size(); i++) {
+            if (index == -1 || mNotifications.get(i).getPriority() > mNotifications.get(index).getPriority()) {
+                index = i;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Drops the lowest priority, newest notification messages until the queue is within its
+     * maximum size.
+     */
+    @MainThread
+    private void trim() {
+        while (mNotifications.size() > mMaxSize) {
+            int index = mNotifications.size() - 1;
+            for (int i = index - 1; i >= 0; i--) {
+                if (mNotifications.get(i).getPriority() < mNotifications.get(index).getPriority()) {
+                    index = i;
+                }
+            }
+
+            final Notification notification = mNotifications.remove(index);
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, String.format("Dropped notification message \"%s\"", notification.getTitle()));
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.zapic.sdk.android;
+
+import android.app.ActivityManager;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Process;
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Provides utility methods to identify the process running Zapic.
+ * <p>
+ * The game may opt in to running the Zapic web page in a separate process by adding the
+ * {@code com.zapic.sdk.android.SeparateProcess} meta-data element (with a value of {@code true})
+ * to its application manifest. The separate process is named {@code <package>:zapic} (see the
+ * {@link ZapicService} and {@link ZapicRemoteActivity} manifest declarations).
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class ProcessUtilities {
+    /**
+     * The name of the meta-data element that enables the separate process.
+     */
+    @NonNull
+    private static final String META_DATA_SEPARATE_PROCESS = "com.zapic.sdk.android.SeparateProcess";
+
+    /**
+     * The suffix of the separate process name. This must match the manifest declarations.
+     */
+    @NonNull
+    private static final String PROCESS_SUFFIX = ":zapic";
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "ProcessUtilities";
+
+    /**
+     * A value indicating whether the separate process is enabled or {@code null} if it has not
+     * been read from the application manifest.
+     */
+    @Nullable
+    private static volatile Boolean sSeparateProcessEnabled = null;
+
+    /**
+     * A value indicating whether the current process is the separate process or {@code null} if
+     * the process name has not been read.
+     */
+    @Nullable
+    private static volatile Boolean sZapicProcess = null;
+
+    /**
+     * Prevents creating a new {@link ProcessUtilities} instance.
+     */
+    private ProcessUtilities() {
+    }
+
+    /**
+     * Gets the name of the current process.
+     * <p>
+     * Before Android 9.0, this reads {@code /proc/self/cmdline}, which avoids a binder call to the
+     * {@link ActivityManager}. The {@link ActivityManager} is only queried if that fails.
+     *
+     * @param context Any context object.
+     * @return The name of the current process or {@code null} if it cannot be determined.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    private static String getProcessName(@NonNull final Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return Application.getProcessName();
+        }
+
+        final String processName = readProcessName();
+        if (processName != null) {
+            return processName;
+        }
+
+        final ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager == null) {
+            return null;
+        }
+
+        final List<ActivityManager.RunningAppProcessInfo> processes = activityManager.getRunningAppProcesses();
+        if (processes == null) {
+            return null;
+        }
+
+        final int pid = Process.myPid();
+        for (final ActivityManager.RunningAppProcessInfo process : processes) {
+            if (process.pid == pid) {
+                return process.processName;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets a value indicating whether the game has opted in to running the Zapic web page in a
+     * separate process.
+     *
+     * @param context Any context object.
+     * @return {@code true} if the separate process is enabled.
+     */
+    @AnyThread
+    @CheckResult
+    static boolean isSeparateProcessEnabled(@NonNull final Context context) {
+        Boolean enabled = sSeparateProcessEnabled;
+        if (enabled == null) {
+            enabled = false;
+            try {
+                final ApplicationInfo applicationInfo = context.getPackageManager().getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+                final Bundle metaData = applicationInfo.metaData;
+                if (metaData != null) {
+                    enabled = metaData.getBoolean(META_DATA_SEPARATE_PROCESS, false);
+                }
+            } catch (PackageManager.NameNotFoundException e) {
+                Log.e(TAG, "Failed to read the application meta-data", e);
+            }
+
+            sSeparateProcessEnabled = enabled;
+        }
+
+        return enabled;
+    }
+
+    /**
+     * Gets a value indicating whether the current process is the separate process that runs the
+     * Zapic web page.
+     *
+     * @param context Any context object.
+     * @return {@code true} if the current process is the separate process.
+     */
+    @AnyThread
+    @CheckResult
+    static boolean isZapicProcess(@NonNull final Context context) {
+        Boolean zapicProcess = sZapicProcess;
+        if (zapicProcess == null) {
+            final String processName = getProcessName(context);
+            zapicProcess = processName != null && processName.endsWith(PROCESS_SUFFIX);
+            sZapicProcess = zapicProcess;
+        }
+
+        return zapicProcess;
+    }
+
+    /**
+     * Reads the name of the current process from {@code /proc/self/cmdline}.
+     *
+     * @return The name of the current process or {@code null} if it cannot be read.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    private static String readProcessName() {
+        final byte[] buffer = new byte[256];
+        int length = 0;
+        InputStream stream = null;
+        try {
+            stream = new FileInputStream("/proc/self/cmdline");
+            int read;
+            while (length < buffer.length && (read = stream.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        // The arguments are separated (and terminated) by NUL characters.
+        int end = 0;
+        while (end < length && buffer[end] != 0) {
+            end++;
+        }
+
+        return end == 0 ? null : new String(buffer, 0, end, StandardCharsets.UTF_8);
+    }
+}
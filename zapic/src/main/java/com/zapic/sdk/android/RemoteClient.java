@@ -0,0 +1,319 @@
+package com.zapic.sdk.android;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.support.annotation.AnyThread;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Relays gameplay and interaction events from the game process to the {@link ZapicService} running
+ * in the separate process.
+ * <p>
+ * Events are queued and sent in batches to limit the number of binder transactions. Login and
+ * logout callbacks, notification messages, and requests to show the Zapic web page are received
+ * from the {@link ZapicService} and passed to the game process {@link SessionManager} and
+ * {@link ViewManager} instances.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class RemoteClient {
+    /**
+     * Identifies the message that sends the queued events.
+     */
+    private static final int ACTION_TYPE_FLUSH = 1000;
+
+    /**
+     * The maximum time (in milliseconds) an event waits before it is sent.
+     */
+    private static final long BATCH_DELAY = 250;
+
+    /**
+     * The maximum number of events sent in a single binder transaction.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "RemoteClient";
+
+    /**
+     * The Android application context.
+     */
+    @NonNull
+    private final Context mApplicationContext;
+
+    /**
+     * The connection to the {@link ZapicService}.
+     */
+    @NonNull
+    private final ServiceConnection mConnection;
+
+    /**
+     * The queue of serialized gameplay and interaction events.
+     */
+    @NonNull
+    private final ConcurrentLinkedQueue<String> mEvents;
+
+    /**
+     * The message handler used to send batches and receive messages from the
+     * {@link ZapicService}.
+     */
+    @NonNull
+    private final Handler mHandler;
+
+    /**
+     * The messenger that receives messages from the {@link ZapicService}.
+     */
+    @NonNull
+    private final Messenger mMessenger;
+
+    /**
+     * The {@link SessionManager} instance.
+     */
+    @NonNull
+    private final SessionManager mSessionManager;
+
+    /**
+     * The {@link ViewManager} instance.
+     */
+    @NonNull
+    private final ViewManager mViewManager;
+
+    /**
+     * The messenger that sends messages to the {@link ZapicService} or {@code null} if the service
+     * is not connected.
+     */
+    @Nullable
+    private Messenger mService;
+
+    /**
+     * Creates a new {@link RemoteClient} instance.
+     *
+     * @param context        Any context object (e.g. the global {@link android.app.Application} or
+     *                       an {@link android.app.Activity}).
+     * @param sessionManager The {@link SessionManager} instance.
+     * @param viewManager    The {@link ViewManager} instance.
+     */
+    @MainThread
+    RemoteClient(@NonNull final Context context, @NonNull final SessionManager sessionManager, @NonNull final ViewManager viewManager) {
+        mApplicationContext = context.getApplicationContext();
+        mConnection = new ServiceConnection() {
+            @MainThread
+            @Override
+            public void onServiceConnected(@Nullable final ComponentName name, @Nullable final IBinder service) {
+                onServiceConnectedHandled(service);
+            }
+
+            @MainThread
+            @Override
+            public void onServiceDisconnected(@Nullable final ComponentName name) {
+                if (BuildConfig.DEBUG) {
+                    Log.d(TAG, "Disconnected from the Zapic process");
+                }
+
+                mService = null;
+            }
+        };
+        mEvents = new ConcurrentLinkedQueue<>();
+        mHandler = new Handler(mApplicationContext.getMainLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(@Nullable final Message msg) {
+                if (msg == null) {
+                    return false;
+                }
+
+                switch (msg.what) {
+                    case ACTION_TYPE_FLUSH:
+                        flush();
+                        break;
+                    case ZapicService.MSG_LOGGED_IN:
+                        onLoggedInHandled(msg.getData());
+                        break;
+                    case ZapicService.MSG_LOGGED_OUT:
+                        mSessionManager.onLogout();
+                        break;
+                    case ZapicService.MSG_SHOW_BANNER:
+                        onShowBannerHandled(msg.getData());
+                        break;
+                    case ZapicService.MSG_SHOW_PAGE:
+                        mViewManager.showWebPage();
+                        break;
+                    default:
+                        break;
+                }
+
+                return true;
+            }
+        });
+        mMessenger = new Messenger(mHandler);
+        mService = null;
+        mSessionManager = sessionManager;
+        mViewManager = viewManager;
+    }
+
+    /**
+     * Binds to the {@link ZapicService}. This starts the separate process if it is not running.
+     */
+    @MainThread
+    void start() {
+        final Intent intent = new Intent(mApplicationContext, ZapicService.class);
+        if (!mApplicationContext.bindService(intent, mConnection, Context.BIND_AUTO_CREATE)) {
+            Log.e(TAG, "Failed to bind to the Zapic process");
+        }
+    }
+
+    /**
+     * Queues a gameplay or interaction event. Events are sent to the {@link ZapicService} in
+     * batches.
+     *
+     * @param message The gameplay or interaction event.
+     */
+    @AnyThread
+    void handleEvent(@NonNull final JSONObject message) {
+        mEvents.offer(message.toString());
+        if (!mHandler.hasMessages(ACTION_TYPE_FLUSH)) {
+            mHandler.sendEmptyMessageDelayed(ACTION_TYPE_FLUSH, BATCH_DELAY);
+        }
+    }
+
+    /**
+     * Relays a request to prepare a page to the {@link ZapicService}. The request is dropped if
+     * the service is not connected.
+     *
+     * @param page The page to prepare.
+     */
+    @MainThread
+    void preparePage(@NonNull final String page) {
+        if (mService == null) {
+            return;
+        }
+
+        final Message message = Message.obtain(null, ZapicService.MSG_PREPARE_PAGE);
+        message.getData().putString(ZapicService.KEY_PAGE, page);
+        try {
+            mService.send(message);
+        } catch (RemoteException e) {
+            Log.e(TAG, "Failed to relay a request to the Zapic process", e);
+            mService = null;
+        }
+    }
+
+    /**
+     * Sends the queued events to the {@link ZapicService}. Events remain queued if the service is
+     * not connected.
+     */
+    @MainThread
+    private void flush() {
+        while (mService != null && !mEvents.isEmpty()) {
+            final ArrayList<String> batch = new ArrayList<>();
+            while (batch.size() < MAX_BATCH_SIZE) {
+                final String event = mEvents.poll();
+                if (event == null) {
+                    break;
+                }
+
+                batch.add(event);
+            }
+
+            final Message message = Message.obtain(null, ZapicService.MSG_SUBMIT_EVENTS);
+            message.getData().putStringArrayList(ZapicService.KEY_EVENTS, batch);
+            try {
+                mService.send(message);
+            } catch (RemoteException e) {
+                Log.e(TAG, "Failed to relay events to the Zapic process", e);
+                mService = null;
+            }
+        }
+    }
+
+    /**
+     * Passes a relayed login callback to the {@link SessionManager} instance.
+     *
+     * @param data The message data.
+     */
+    @MainThread
+    private void onLoggedInHandled(@NonNull final Bundle data) {
+        final String playerId = data.getString(ZapicService.KEY_PLAYER_ID);
+        final String notificationToken = data.getString(ZapicService.KEY_NOTIFICATION_TOKEN);
+        if (playerId != null && notificationToken != null) {
+            mSessionManager.onLogin(new ZapicPlayer(playerId, notificationToken));
+        }
+    }
+
+    /**
+     * Registers with the {@link ZapicService} and sends the queued events.
+     *
+     * @param service The service binder or {@code null} if the binding failed.
+     */
+    @MainThread
+    private void onServiceConnectedHandled(@Nullable final IBinder service) {
+        if (service == null) {
+            return;
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Connected to the Zapic process");
+        }
+
+        mService = new Messenger(service);
+
+        final Message message = Message.obtain(null, ZapicService.MSG_REGISTER_CLIENT);
+        message.replyTo = mMessenger;
+        try {
+            mService.send(message);
+        } catch (RemoteException e) {
+            Log.e(TAG, "Failed to register with the Zapic process", e);
+            mService = null;
+            return;
+        }
+
+        flush();
+    }
+
+    /**
+     * Passes a relayed notification message to the {@link ViewManager} instance.
+     *
+     * @param data The message data.
+     */
+    @MainThread
+    private void onShowBannerHandled(@NonNull final Bundle data) {
+        final String title = data.getString(ZapicService.KEY_TITLE);
+        if (title == null) {
+            return;
+        }
+
+        JSONObject metadata = null;
+        final String serializedMetadata = data.getString(ZapicService.KEY_METADATA);
+        if (serializedMetadata != null) {
+            try {
+                metadata = new JSONObject(serializedMetadata);
+            } catch (JSONException ignored) {
+            }
+        }
+
+        final byte[] image = data.getByteArray(ZapicService.KEY_IMAGE);
+        final String group = data.getString(ZapicService.KEY_GROUP);
+        final int priority = data.getInt(ZapicService.KEY_PRIORITY);
+        mViewManager.showNotification(new Notification(title, data.getString(ZapicService.KEY_TEXT), image, metadata, group, priority));
+    }
+}
@@ -3,18 +3,20 @@
 import android.content.Context;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.support.annotation.AnyThread;
 import android.support.annotation.CheckResult;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.webkit.WebView;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 final class SessionManager {
     /**
@@ -28,6 +30,25 @@ final class SessionManager {
     @NonNull
     private static final String TAG = "SessionManager";
 
+    /**
+     * A value indicating whether events are batched. If {@code true}, events are queued until
+     * {@link #flushEvents()} is called.
+     */
+    private volatile boolean mBatched;
+
+    /**
+     * The dispatcher used to send messages to the Zapic web page or {@code null} if the Zapic web
+     * page has not started.
+     */
+    @Nullable
+    private WebViewDispatcher mDispatcher;
+
+    /**
+     * The {@link FrameScheduler} instance used to spread event delivery across frames.
+     */
+    @NonNull
+    private final FrameScheduler mFrameScheduler;
+
     /**
      * The message handler used to invoke methods on the UI thread.
      */
@@ -38,7 +59,18 @@ final class SessionManager {
      * The queue of gameplay and interaction event messages.
      */
     @NonNull
-    private final ConcurrentLinkedQueue<JSONObject> mMessages;
+    private final ConcurrentLinkedQueue<QueuedEvent> mMessages;
+
+    /**
+     * The task that delivers a queued event in an upcoming frame.
+     */
+    @NonNull
+    private final Runnable mSubmitEventTask;
+
+    /**
+     * A value indicating whether {@link #mSubmitEventTask} has been scheduled.
+     */
+    private boolean mSubmitEventScheduled;
 
     /**
      * The current player.
@@ -53,19 +85,24 @@ final class SessionManager {
     private ZapicPlayerAuthenticationHandler mAuthenticationHandler;
 
     /**
-     * The {@link WebView} instance.
+     * The authentication handler that relays login and logout callbacks to the game process (see
+     * {@link ZapicService}).
      */
     @Nullable
-    private WebView mWebView;
+    private ZapicPlayerAuthenticationHandler mRelayAuthenticationHandler;
 
     /**
      * Creates a new {@link SessionManager} instance.
      *
-     * @param context Any context object (e.g. the global {@link android.app.Application} or an
-     *                {@link android.app.Activity}).
+     * @param context        Any context object (e.g. the global {@link android.app.Application} or
+     *                       an {@link android.app.Activity}).
+     * @param frameScheduler The {@link FrameScheduler} instance.
      */
-    SessionManager(@NonNull final Context context) {
+    SessionManager(@NonNull final Context context, @NonNull final FrameScheduler frameScheduler) {
         mAuthenticationHandler = null;
+        mBatched = false;
+        mDispatcher = null;
+        mFrameScheduler = frameScheduler;
         mHandler = new Handler(context.getApplicationContext().getMainLooper(), new Handler.Callback() {
             @Override
             @SuppressWarnings("unchecked")
@@ -76,7 +113,7 @@ public boolean handleMessage(@Nullable final Message msg) {
 
                 switch (msg.what) {
                     case ACTION_TYPE_SUBMIT_EVENT:
-                        onSubmitEventHandled();
+                        scheduleSubmitEvent();
                         break;
                     default:
                         break;
@@ -87,44 +124,54 @@ public boolean handleMessage(@Nullable final Message msg) {
         });
         mMessages = new ConcurrentLinkedQueue<>();
         mPlayer = null;
-        mWebView = null;
+        mRelayAuthenticationHandler = null;
+        mSubmitEventScheduled = false;
+        mSubmitEventTask = new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                mSubmitEventScheduled = false;
+                onSubmitEventScheduled();
+            }
+        };
     }
 
     /**
      * Dispatches a message to the Zapic web page.
      *
-     * @param message The message.
+     * @param type      The message type.
+     * @param message   The message.
+     * @param queueTime The time (in nanoseconds) the message waited to be sent or {@code -1} if it
+     *                  is not known.
      */
     @MainThread
-    private void dispatch(@NonNull final JSONObject message) {
-        if (BuildConfig.DEBUG) {
-            Log.i(TAG, String.format("Sending Zapic web page message: %s", message.toString()));
-        }
-
-        assert mWebView != null : "mWebView == null";
-        mWebView.evaluateJavascript("window.zapic.dispatch(" + message.toString() + ")", null);
+    private void dispatch(@NonNull final String type, @NonNull final JSONObject message, final long queueTime) {
+        assert mDispatcher != null : "mDispatcher == null";
+        mDispatcher.dispatch(type, message, queueTime);
     }
 
     /**
      * Dispatches a "SUBMIT_EVENT" message to the Zapic web page.
      *
-     * @param message The gameplay or interaction event.
+     * @param message   The gameplay or interaction event.
+     * @param queueTime The time (in nanoseconds) the message waited to be sent or {@code -1} if it
+     *                  is not known.
      */
     @MainThread
-    private void dispatchSubmitEvent(@NonNull final JSONObject message) {
-        if (mWebView != null) {
+    private void dispatchSubmitEvent(@NonNull final JSONObject message, final long queueTime) {
+        if (mDispatcher != null) {
             try {
                 if ("interaction".equals(message.getString("type"))) {
                     final String payload = message.getJSONObject("params").getString("zapic");
-                    dispatch(new JSONObject()
+                    dispatch("SUBMIT_EVENT", new JSONObject()
                             .put("type", "SUBMIT_EVENT")
                             .put("payload", new JSONObject()
                                     .put("type", "interaction")
-                                    .put("payload", payload)));
+                                    .put("payload", payload)), queueTime);
                 } else {
-                    dispatch(new JSONObject()
+                    dispatch("SUBMIT_EVENT", new JSONObject()
                             .put("type", "SUBMIT_EVENT")
-                            .put("payload", message));
+                            .put("payload", message), queueTime);
                 }
             } catch (JSONException ignored) {
             }
@@ -150,8 +197,43 @@ ZapicPlayer getCurrentPlayer() {
      */
     @AnyThread
     void handleEvent(@NonNull final JSONObject message) {
-        mMessages.offer(message);
-        mHandler.obtainMessage(ACTION_TYPE_SUBMIT_EVENT).sendToTarget();
+        mMessages.offer(new QueuedEvent(message, SystemClock.uptimeMillis()));
+
+        // This must be read after the message is queued; see setBatched.
+        if (!mBatched) {
+            mHandler.obtainMessage(ACTION_TYPE_SUBMIT_EVENT).sendToTarget();
+        }
+    }
+
+    /**
+     * Handles a batch of gameplay and interaction events by relaying them to the {@link WebView}.
+     * This queues all of the events before waking the UI thread once.
+     *
+     * @param messages The gameplay and interaction events.
+     */
+    @AnyThread
+    void handleEvents(@NonNull final List<JSONObject> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        final long time = SystemClock.uptimeMillis();
+        for (final JSONObject message : messages) {
+            mMessages.offer(new QueuedEvent(message, time));
+        }
+
+        // This must be read after the messages are queued; see setBatched.
+        if (!mBatched) {
+            mHandler.obtainMessage(ACTION_TYPE_SUBMIT_EVENT).sendToTarget();
+        }
+    }
+
+    /**
+     * Relays queued gameplay and interaction events to the {@link WebView}.
+     */
+    @MainThread
+    void flushEvents() {
+        onSubmitEventHandled(-1);
     }
 
     /**
@@ -168,6 +250,11 @@ void onLogin(@NonNull final ZapicPlayer player) {
         if (authenticationHandler != null) {
             authenticationHandler.onLogin(player);
         }
+
+        final ZapicPlayerAuthenticationHandler relayAuthenticationHandler = mRelayAuthenticationHandler;
+        if (relayAuthenticationHandler != null) {
+            relayAuthenticationHandler.onLogin(player);
+        }
     }
 
     /**
@@ -182,43 +269,117 @@ void onLogout() {
             if (authenticationHandler != null) {
                 authenticationHandler.onLogout(previousPlayer);
             }
+
+            final ZapicPlayerAuthenticationHandler relayAuthenticationHandler = mRelayAuthenticationHandler;
+            if (relayAuthenticationHandler != null) {
+                relayAuthenticationHandler.onLogout(previousPlayer);
+            }
         }
     }
 
     /**
+     * @param queueTime The time (in nanoseconds) the messages waited to be sent or {@code -1} if it
+     *                  is not known.
      * @see #handleEvent(JSONObject)
      */
     @MainThread
-    private void onSubmitEventHandled() {
-        if (mWebView != null) {
+    private void onSubmitEventHandled(final long queueTime) {
+        if (mDispatcher != null) {
             while (true) {
-                final JSONObject message = mMessages.poll();
-                if (message == null) {
+                final QueuedEvent event = mMessages.poll();
+                if (event == null) {
                     break;
                 }
 
-                dispatchSubmitEvent(message);
+                dispatchSubmitEvent(event.mMessage, queueTime);
             }
         }
     }
 
     /**
-     * Called when the {@link WebView} instance has crashed.
+     * Delivers one queued event and schedules the next queued event, so that a burst of events
+     * is spread across frames. This stops if events are batched; the remaining events are
+     * delivered by {@link #flushEvents()}.
+     *
+     * @see #scheduleSubmitEvent()
+     */
+    @MainThread
+    private void onSubmitEventScheduled() {
+        if (mDispatcher == null || mBatched) {
+            return;
+        }
+
+        final QueuedEvent event = mMessages.poll();
+        if (event == null) {
+            return;
+        }
+
+        // Each event is timed from when it was handled, so events later in a burst include only
+        // the frames they actually waited.
+        dispatchSubmitEvent(event.mMessage, TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - event.mTime));
+        if (!mMessages.isEmpty()) {
+            mSubmitEventScheduled = true;
+            mFrameScheduler.post(mSubmitEventTask);
+        }
+    }
+
+    /**
+     * Called when the {@link WebView} instance has crashed (or has been destroyed to free memory).
      */
     @MainThread
     void onWebViewCrashed() {
-        mWebView = null;
+        mDispatcher = null;
     }
 
     /**
      * Called when the {@link WebView} instance has loaded the Zapic web page.
      *
-     * @param webView The {@link WebView} instance.
+     * @param dispatcher The dispatcher used to send messages to the Zapic web page.
+     */
+    @MainThread
+    void onWebViewLoaded(@NonNull final WebViewDispatcher dispatcher) {
+        mDispatcher = dispatcher;
+        onSubmitEventHandled(-1);
+    }
+
+    /**
+     * Schedules queued events to be delivered by the {@link FrameScheduler}.
      */
     @MainThread
-    void onWebViewLoaded(@NonNull final WebView webView) {
-        mWebView = webView;
-        onSubmitEventHandled();
+    private void scheduleSubmitEvent() {
+        if (mSubmitEventScheduled) {
+            return;
+        }
+
+        mSubmitEventScheduled = true;
+        mFrameScheduler.post(mSubmitEventTask);
+    }
+
+    /**
+     * Sets a value indicating whether events are batched. If {@code true}, events are queued until
+     * {@link #flushEvents()} is called. If {@code false}, queued events are flushed immediately.
+     *
+     * @param batched {@code true} if events are batched.
+     */
+    @MainThread
+    void setBatched(final boolean batched) {
+        mBatched = batched;
+        if (!batched) {
+            flushEvents();
+        }
+    }
+
+    /**
+     * Sets the authentication handler that relays login and logout callbacks to the game process.
+     * This is independent of the game's authentication handler, which may also be set in the
+     * separate process.
+     *
+     * @param relayAuthenticationHandler The authentication handler or {@code null} to stop
+     *                                   relaying callbacks.
+     */
+    @MainThread
+    void setRelayAuthenticationHandler(@Nullable final ZapicPlayerAuthenticationHandler relayAuthenticationHandler) {
+        mRelayAuthenticationHandler = relayAuthenticationHandler;
     }
 
     /**
@@ -241,4 +402,32 @@ void setPlayerAuthenticationHandler(@Nullable final ZapicPlayerAuthenticationHan
             }
         }
     }
+
+    /**
+     * Represents a queued gameplay or interaction event.
+     */
+    private static final class QueuedEvent {
+        /**
+         * The gameplay or interaction event.
+         */
+        @NonNull
+        private final JSONObject mMessage;
+
+        /**
+         * The time (in milliseconds since boot) the event was handled.
+         */
+        private final long mTime;
+
+        /**
+         * Creates a new {@link QueuedEvent} instance.
+         *
+         * @param message The gameplay or interaction event.
+         * @param time    The time (in milliseconds since boot) the event was handled.
+         */
+        @AnyThread
+        private QueuedEvent(@NonNull final JSONObject message, final long time) {
+            mMessage = message;
+            mTime = time;
+        }
+    }
 }
@@ -0,0 +1,266 @@
+package com.zapic.sdk.android;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.webkit.WebView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches a downscaled snapshot of the last fully rendered Zapic web page.
+ * <p>
+ * The snapshot is shown as a placeholder by the {@link ZapicActivity} while the {@link WebView}
+ * instance loads, so the activity opens with the last page the player saw instead of a progress
+ * bar. The snapshot is kept in memory and written to the cache directory as a WebP image. All
+ * disk I/O is serialized on a private thread, so it never waits behind (or delays) the download
+ * of the Zapic web page or the game's own background work. The snapshot is deleted when the
+ * player logs out.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class SnapshotCache {
+    /**
+     * The time (in seconds) the idle I/O thread is kept alive.
+     */
+    private static final int KEEP_ALIVE_TIME = 30;
+
+    /**
+     * The quality of the compressed snapshot.
+     */
+    private static final int QUALITY = 75;
+
+    /**
+     * The scale of the snapshot relative to the {@link WebView} instance.
+     */
+    private static final float SCALE = 0.5f;
+
+    /**
+     * The snapshot file name.
+     */
+    @NonNull
+    private static final String SNAPSHOT_FILE_NAME = "snapshot.webp";
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "SnapshotCache";
+
+    /**
+     * The snapshot file.
+     */
+    @NonNull
+    private final File mFile;
+
+    /**
+     * The handler used to return loaded snapshots to the UI thread.
+     */
+    @NonNull
+    private final Handler mHandler;
+
+    /**
+     * The executor used to serialize disk I/O.
+     */
+    @NonNull
+    private final ThreadPoolExecutor mIoExecutor;
+
+    /**
+     * The snapshot or {@code null} if a snapshot has not been captured or loaded.
+     */
+    @Nullable
+    private Bitmap mSnapshot;
+
+    /**
+     * The number of times the snapshot has been captured or cleared. This is used to discard a
+     * loaded snapshot that is older than the current snapshot.
+     */
+    private int mVersion;
+
+    /**
+     * Creates a new {@link SnapshotCache} instance. The snapshot saved by a previous session is
+     * not loaded until {@link #load()} is invoked.
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     */
+    @MainThread
+    SnapshotCache(@NonNull final Context context) {
+        mFile = new File(new File(context.getCacheDir(), "Zapic"), SNAPSHOT_FILE_NAME);
+        mHandler = new Handler(Looper.getMainLooper());
+        mIoExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory());
+        mIoExecutor.allowCoreThreadTimeOut(true);
+        mSnapshot = null;
+        mVersion = 0;
+    }
+
+    /**
+     * Captures a downscaled snapshot of the {@link WebView} instance and saves it in the
+     * background.
+     *
+     * @param webView The {@link WebView} instance. This must have been laid out.
+     */
+    @MainThread
+    void capture(@NonNull final WebView webView) {
+        final int width = Math.round(webView.getWidth() * SCALE);
+        final int height = Math.round(webView.getHeight() * SCALE);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        final Bitmap snapshot;
+        try {
+            snapshot = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        } catch (OutOfMemoryError e) {
+            Log.e(TAG, "Failed to allocate the snapshot", e);
+            return;
+        }
+
+        final Canvas canvas = new Canvas(snapshot);
+        canvas.scale(SCALE, SCALE);
+        canvas.translate(-webView.getScrollX(), -webView.getScrollY());
+        webView.draw(canvas);
+
+        mSnapshot = snapshot;
+        mVersion++;
+        mIoExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                save(snapshot);
+            }
+        });
+    }
+
+    /**
+     * Deletes the snapshot from memory and the cache directory.
+     */
+    @MainThread
+    void clear() {
+        mSnapshot = null;
+        mVersion++;
+        mIoExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mFile.exists() && !mFile.delete()) {
+                    Log.e(TAG, "Failed to delete the snapshot");
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the snapshot if it matches the orientation of the specified context's display.
+     *
+     * @param context The context used to get the display orientation.
+     * @return The snapshot or {@code null} if a snapshot is not available or was captured in a
+     * different orientation.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    Bitmap get(@NonNull final Context context) {
+        final Bitmap snapshot = mSnapshot;
+        if (snapshot == null) {
+            return null;
+        }
+
+        final DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        final boolean landscape = metrics.widthPixels > metrics.heightPixels;
+        return landscape == snapshot.getWidth() > snapshot.getHeight() ? snapshot : null;
+    }
+
+    /**
+     * Loads the snapshot saved by a previous session in the background. This is invoked when Zapic
+     * warms up rather than when it is created, so it does not compete with the game's launch.
+     */
+    @MainThread
+    void load() {
+        final int version = mVersion;
+        mIoExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!mFile.exists()) {
+                    return;
+                }
+
+                final BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inPreferredConfig = Bitmap.Config.RGB_565;
+                final Bitmap snapshot = BitmapFactory.decodeFile(mFile.getAbsolutePath(), options);
+                if (snapshot == null) {
+                    return;
+                }
+
+                mHandler.post(new Runnable() {
+                    @MainThread
+                    @Override
+                    public void run() {
+                        onLoaded(snapshot, version);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the loaded snapshot unless a newer snapshot was captured (or the snapshot was cleared)
+     * while it was loading.
+     *
+     * @param snapshot The loaded snapshot.
+     * @param version  The version at the time the snapshot started loading.
+     */
+    @MainThread
+    private void onLoaded(@NonNull final Bitmap snapshot, final int version) {
+        if (mVersion == version) {
+            mSnapshot = snapshot;
+        }
+    }
+
+    /**
+     * Writes the snapshot to the cache directory.
+     *
+     * @param snapshot The snapshot.
+     */
+    @WorkerThread
+    private void save(@NonNull final Bitmap snapshot) {
+        final File directory = mFile.getParentFile();
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            Log.e(TAG, "Failed to create the snapshot directory");
+            return;
+        }
+
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(mFile);
+            snapshot.compress(Bitmap.CompressFormat.WEBP, QUALITY, stream);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to save the snapshot", e);
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
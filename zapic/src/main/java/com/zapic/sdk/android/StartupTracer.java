@@ -0,0 +1,262 @@
+package com.zapic.sdk.android;
+
+import android.os.Trace;
+import android.support.annotation.AnyThread;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Traces the phases that start Zapic.
+ * <p>
+ * Synchronous phases are traced with {@link Trace} sections (named "Zapic:&lt;phase&gt;") so they
+ * appear in systrace and Perfetto captures. Asynchronous phases (which start and end on different
+ * threads or callbacks) are only timestamped. Each phase is recorded once; if a phase repeats
+ * (for example, after a failed download), its first start time and last end time are kept. The
+ * timeline is completed by the first "PAGE_READY" message.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class StartupTracer {
+    /**
+     * The "start" phase.
+     */
+    @NonNull
+    static final String PHASE_START = "start";
+
+    /**
+     * The "deleteShareDir" phase.
+     */
+    @NonNull
+    static final String PHASE_DELETE_SHARE_DIR = "deleteShareDir";
+
+    /**
+     * The "getWebPage" phase.
+     */
+    @NonNull
+    static final String PHASE_GET_WEB_PAGE = "getWebPage";
+
+    /**
+     * The "downloadWebPage" phase.
+     */
+    @NonNull
+    static final String PHASE_DOWNLOAD_WEB_PAGE = "downloadWebPage";
+
+    /**
+     * The "injectScript" phase.
+     */
+    @NonNull
+    static final String PHASE_INJECT_SCRIPT = "injectScript";
+
+    /**
+     * The "startSafeBrowsing" phase.
+     */
+    @NonNull
+    static final String PHASE_START_SAFE_BROWSING = "startSafeBrowsing";
+
+    /**
+     * The "createWebView" phase.
+     */
+    @NonNull
+    static final String PHASE_CREATE_WEB_VIEW = "createWebView";
+
+    /**
+     * The "loadUrl" phase.
+     */
+    @NonNull
+    static final String PHASE_LOAD_URL = "loadUrl";
+
+    /**
+     * The "APP_STARTED" phase.
+     */
+    @NonNull
+    static final String PHASE_APP_STARTED = "APP_STARTED";
+
+    /**
+     * The "PAGE_READY" phase.
+     */
+    @NonNull
+    static final String PHASE_PAGE_READY = "PAGE_READY";
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "StartupTracer";
+
+    /**
+     * The end times of the phases, by name.
+     */
+    @NonNull
+    private final Map<String, Long> mEndTimes;
+
+    /**
+     * The listener that is notified after the timeline has completed.
+     */
+    @Nullable
+    private ZapicStartupListener mListener;
+
+    /**
+     * A synchronization lock for {@link #mEndTimes}, {@link #mStartTimes}, and
+     * {@link #mTimeline}.
+     */
+    @NonNull
+    private final Object mLock;
+
+    /**
+     * The time (in nanoseconds) the timeline started.
+     */
+    private final long mOriginTime;
+
+    /**
+     * The start times of the phases, by name.
+     */
+    @NonNull
+    private final Map<String, Long> mStartTimes;
+
+    /**
+     * The completed timeline or {@code null} if the timeline has not completed.
+     */
+    @Nullable
+    private ZapicStartupTimeline mTimeline;
+
+    /**
+     * Creates a new {@link StartupTracer} instance. The timeline starts immediately.
+     */
+    @AnyThread
+    StartupTracer() {
+        mEndTimes = new LinkedHashMap<>();
+        mListener = null;
+        mLock = new Object();
+        mOriginTime = System.nanoTime();
+        mStartTimes = new LinkedHashMap<>();
+        mTimeline = null;
+    }
+
+    /**
+     * Records the start of a synchronous phase and begins a {@link Trace} section. This must be
+     * followed by {@link #endSection(String)} on the same thread.
+     *
+     * @param phase The phase.
+     */
+    @AnyThread
+    void beginSection(@NonNull final String phase) {
+        Trace.beginSection("Zapic:" + phase);
+        markStart(phase);
+    }
+
+    /**
+     * Records the end of a synchronous phase and ends the {@link Trace} section.
+     *
+     * @param phase The phase.
+     */
+    @AnyThread
+    void endSection(@NonNull final String phase) {
+        markEnd(phase);
+        Trace.endSection();
+    }
+
+    /**
+     * Records the start of an asynchronous phase.
+     *
+     * @param phase The phase.
+     */
+    @AnyThread
+    void markStart(@NonNull final String phase) {
+        final long time = System.nanoTime() - mOriginTime;
+        synchronized (mLock) {
+            if (mTimeline == null && !mStartTimes.containsKey(phase)) {
+                mStartTimes.put(phase, time);
+            }
+        }
+    }
+
+    /**
+     * Records the end of an asynchronous phase.
+     *
+     * @param phase The phase.
+     */
+    @AnyThread
+    void markEnd(@NonNull final String phase) {
+        final long time = System.nanoTime() - mOriginTime;
+        synchronized (mLock) {
+            if (mTimeline == null && mStartTimes.containsKey(phase)) {
+                mEndTimes.put(phase, time);
+            }
+        }
+    }
+
+    /**
+     * Records the end of the "PAGE_READY" phase, completes the timeline, and notifies the
+     * listener. This does nothing if the timeline has already completed.
+     */
+    @MainThread
+    void complete() {
+        markEnd(PHASE_PAGE_READY);
+
+        final ZapicStartupTimeline timeline;
+        synchronized (mLock) {
+            if (mTimeline != null) {
+                return;
+            }
+
+            final long totalTime = System.nanoTime() - mOriginTime;
+            final ArrayList<ZapicStartupTimeline.Phase> phases = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : mStartTimes.entrySet()) {
+                final Long endTime = mEndTimes.get(entry.getKey());
+                if (endTime != null) {
+                    phases.add(new ZapicStartupTimeline.Phase(entry.getKey(), entry.getValue(), endTime));
+                }
+            }
+
+            Collections.sort(phases, new Comparator<ZapicStartupTimeline.Phase>() {
+                @Override
+                public int compare(final ZapicStartupTimeline.Phase a, final ZapicStartupTimeline.Phase b) {
+                    return a.getStartTime() < b.getStartTime() ? -1 : (a.getStartTime() == b.getStartTime() ? 0 : 1);
+                }
+            });
+
+            timeline = new ZapicStartupTimeline(phases, totalTime);
+            mTimeline = timeline;
+        }
+
+        if (BuildConfig.DEBUG) {
+            for (ZapicStartupTimeline.Phase phase : timeline.getPhases()) {
+                Log.d(TAG, String.format("%s: +%d ms (%d ms)", phase.getName(), phase.getStartTime() / 1000000, phase.getDuration() / 1000000));
+            }
+        }
+
+        final ZapicStartupListener listener = mListener;
+        if (listener != null) {
+            listener.onStartupCompleted(timeline);
+        }
+    }
+
+    /**
+     * Sets the listener that is notified after the timeline has completed. If the timeline has
+     * already completed, the listener is notified immediately.
+     *
+     * @param listener The listener or {@code null} to unsubscribe a previous listener.
+     */
+    @MainThread
+    void setListener(@Nullable final ZapicStartupListener listener) {
+        mListener = listener;
+
+        final ZapicStartupTimeline timeline;
+        synchronized (mLock) {
+            timeline = mTimeline;
+        }
+
+        if (listener != null && timeline != null) {
+            listener.onStartupCompleted(timeline);
+        }
+    }
+}
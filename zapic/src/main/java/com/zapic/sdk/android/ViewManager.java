@@ -1,11 +1,17 @@
 package com.zapic.sdk.android;
 
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.AnyThread;
 import android.support.annotation.CheckResult;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
@@ -14,6 +20,7 @@
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.webkit.ValueCallback;
+import android.webkit.WebSettings;
 import android.webkit.WebView;
 
 import com.zapic.sdk.android.alerter.Alerter;
@@ -22,9 +29,9 @@
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Manages the user interface components.
@@ -33,9 +40,12 @@
  * coordinates passing the {@link WebView} instance to the {@link ZapicActivity} instance.
  * <p>
  * This facilitates routing of notification messages to the topmost activity by maintaining a stack
- * of fragment references ({@link ZapicFrameworkFragment} and {@link ZapicSupportFragment} types).
- * This automatically queues notification messages when another notification message has already
- * been shown.
+ * of weak references to the resumed activities (reported by {@link ZapicFrameworkFragment} and
+ * {@link ZapicSupportFragment} instances or by the {@link ActivityTracker}). This automatically
+ * queues notification messages when another notification message has already been shown.
+ * <p>
+ * If the overlay mode is enabled, the {@link WebView} instance is shown in a {@link ZapicOverlay}
+ * attached to the topmost activity's window instead of a {@link ZapicActivity}.
  *
  * @author Kyle Dodson
  * @since 1.2.0
@@ -48,23 +58,106 @@ final class ViewManager {
     @NonNull
     private static final String TAG = "ViewManager";
 
+    /**
+     * The time (in milliseconds) a prepared page is kept open before it is closed and the
+     * {@link WebView} instance is throttled again.
+     */
+    private static final long PREPARE_TIMEOUT = 15000;
+
+    /**
+     * The time (in milliseconds) a notification message is shown.
+     */
+    private static final long NOTIFICATION_DURATION = 3000;
+
+    /**
+     * The time (in milliseconds) a notification message is shown while other notification
+     * messages are queued.
+     */
+    private static final long NOTIFICATION_BACKLOG_DURATION = 1500;
+
+    /**
+     * The minimum time (in milliseconds) between showing consecutive notification messages. This
+     * limits a burst of notification messages to one every 2 seconds.
+     */
+    private static final long NOTIFICATION_INTERVAL = 2000;
+
     /**
      * The notification message event listener.
      */
     @NonNull
     private final AlertListener mAlertListener;
 
+    /**
+     * The {@link FrameScheduler} instance used to keep fragment transactions out of an activity's
+     * first frame.
+     */
+    @NonNull
+    private final FrameScheduler mFrameScheduler;
+
+    /**
+     * The message handler used to close a prepared page that has not been shown and to delay the
+     * next notification message.
+     */
+    @NonNull
+    private final Handler mHandler;
+
+    /**
+     * The {@link IconDecoder} instance.
+     */
+    @NonNull
+    private final IconDecoder mIconDecoder;
+
+    /**
+     * The {@link ImageProcessor} instance or {@code null} if the {@link WebView} runs in a
+     * separate process.
+     */
+    @Nullable
+    private final ImageProcessor mImageProcessor;
+
     /**
      * The queue of notification messages.
      */
     @NonNull
-    private final LinkedList<Notification> mNotifications;
+    private final NotificationQueue mNotifications;
+
+    /**
+     * The task used to show the next notification message once the minimum interval has passed.
+     */
+    @NonNull
+    private final Runnable mNotificationRunnable;
+
+    /**
+     * The task used to close a prepared page that has not been shown.
+     */
+    @NonNull
+    private final Runnable mPrepareTimeoutRunnable;
+
+    /**
+     * The stack of resumed activities (topmost last). The activities are weakly referenced and
+     * reported by the {@link ZapicFrameworkFragment} and {@link ZapicSupportFragment} instances or
+     * by the {@link ActivityTracker} instance.
+     */
+    @NonNull
+    private final ArrayList<WeakReference<Activity>> mResumedActivities;
+
+    /**
+     * The {@link SnapshotCache} instance or {@code null} if the {@link WebView} runs in a separate
+     * process.
+     */
+    @Nullable
+    private final SnapshotCache mSnapshotCache;
+
+    /**
+     * The {@link WebViewThrottler} instance.
+     */
+    @NonNull
+    private final WebViewThrottler mWebViewThrottler;
 
     /**
      * The {@link ZapicActivity} instance.
      */
     @Nullable
-    private ZapicActivity mActivity;
+    private BaseZapicActivity mActivity;
 
     /**
      * A value indicating whether the {@link ZapicActivity} has been requested.
@@ -72,11 +165,36 @@ final class ViewManager {
     private boolean mActivityRequested;
 
     /**
-     * The list of current {@link ZapicFrameworkFragment} and {@link ZapicSupportFragment}
-     * instances.
+     * The dispatcher used to send messages to the Zapic web page or {@code null} if the Zapic web
+     * page has not started.
      */
-    @NonNull
-    private List<Object> mFragments;
+    @Nullable
+    private WebViewDispatcher mDispatcher;
+
+    /**
+     * The decoded icon of the notification message that is shown or {@code null} if a
+     * notification message with an icon is not shown.
+     */
+    @Nullable
+    private Bitmap mNotificationIcon;
+
+    /**
+     * The time (in milliseconds since boot) the last notification message was shown or {@code 0}
+     * if a notification message has not been shown.
+     */
+    private long mNotificationTime;
+
+    /**
+     * The {@link ZapicOverlay} instance or {@code null} if the overlay is not shown.
+     */
+    @Nullable
+    private ZapicOverlay mOverlay;
+
+    /**
+     * A value indicating whether the {@link WebView} instance is shown in a {@link ZapicOverlay}
+     * instead of a {@link ZapicActivity}.
+     */
+    private volatile boolean mOverlayEnabled;
 
     /**
      * The current page of the {@link ZapicActivity} instance.
@@ -84,6 +202,33 @@ final class ViewManager {
     @Nullable
     private Page mPage;
 
+    /**
+     * The page that has been prepared (opened in the background) or {@code null} if a page has
+     * not been prepared.
+     */
+    @Nullable
+    private String mPreparedPage;
+
+    /**
+     * A value indicating whether the prepared page is ready to be shown.
+     */
+    private boolean mPreparedPageReady;
+
+    /**
+     * The {@link ZapicService} instance or {@code null} if Zapic is not running in a separate
+     * process. If non-{@code null}, notification messages and requests to show the Zapic web page
+     * are relayed to the game process while a {@link ZapicActivity} is not in focus.
+     */
+    @Nullable
+    private ZapicService mService;
+
+    /**
+     * The notification message that is shown or {@code null} if a notification message is not
+     * shown.
+     */
+    @Nullable
+    private Notification mShownNotification;
+
     /**
      * The {@link WebView} instance.
      */
@@ -92,29 +237,83 @@ final class ViewManager {
 
     /**
      * Creates a new {@link ViewManager} instance.
+     *
+     * @param frameScheduler   The {@link FrameScheduler} instance.
+     * @param iconDecoder      The {@link IconDecoder} instance.
+     * @param imageProcessor   The {@link ImageProcessor} instance or {@code null} if the
+     *                         {@link WebView} runs in a separate process.
+     * @param snapshotCache    The {@link SnapshotCache} instance or {@code null} if the
+     *                         {@link WebView} runs in a separate process.
+     * @param webViewThrottler The {@link WebViewThrottler} instance.
      */
     @MainThread
-    ViewManager() {
+    ViewManager(@NonNull final FrameScheduler frameScheduler, @NonNull final IconDecoder iconDecoder, @Nullable final ImageProcessor imageProcessor, @Nullable final SnapshotCache snapshotCache, @NonNull final WebViewThrottler webViewThrottler) {
         mActivity = null;
         mActivityRequested = false;
         mAlertListener = new AlertListener();
-        mFragments = new ArrayList<>();
-        mNotifications = new LinkedList<>();
+        mDispatcher = null;
+        mFrameScheduler = frameScheduler;
+        mHandler = new Handler(Looper.getMainLooper());
+        mIconDecoder = iconDecoder;
+        mImageProcessor = imageProcessor;
+        mNotificationIcon = null;
+        mNotificationRunnable = new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                showNotificationIfReady();
+            }
+        };
+        mNotificationTime = 0;
+        mNotifications = new NotificationQueue();
+        mOverlay = null;
+        mOverlayEnabled = false;
         mPage = Page.LOADING_PAGE;
+        mPrepareTimeoutRunnable = new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                onPrepareTimeout();
+            }
+        };
+        mPreparedPage = null;
+        mPreparedPageReady = false;
+        mResumedActivities = new ArrayList<>();
+        mService = null;
+        mShownNotification = null;
+        mSnapshotCache = snapshotCache;
         mWebView = null;
+        mWebViewThrottler = webViewThrottler;
     }
 
     /**
      * Attaches a {@link ZapicFrameworkFragment} or {@link ZapicSupportFragment} instance to the
      * specified activity.
+     * <p>
+     * The fragment transaction is committed synchronously, so it is scheduled by the
+     * {@link FrameScheduler} to keep it out of the activity's {@code onCreate} lifecycle event
+     * callback. The fragment is not attached if the activity is finishing or has been destroyed
+     * by then.
      *
      * @param activity The activity.
      */
     @MainThread
     void attachFragment(@NonNull final Activity activity) {
-        if (!SupportFragmentUtilities.tryAttach(activity)) {
-            FrameworkFragmentUtilities.attach(activity);
-        }
+        final WeakReference<Activity> activityReference = new WeakReference<>(activity);
+        mFrameScheduler.post(new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                final Activity scheduledActivity = activityReference.get();
+                if (scheduledActivity == null || scheduledActivity.isFinishing() || scheduledActivity.isDestroyed()) {
+                    return;
+                }
+
+                if (!SupportFragmentUtilities.tryAttach(scheduledActivity)) {
+                    FrameworkFragmentUtilities.attach(scheduledActivity);
+                }
+            }
+        });
     }
 
     /**
@@ -132,16 +331,13 @@ void detachFragment(@NonNull final Activity activity) {
     /**
      * Dispatches a message to the Zapic web page.
      *
+     * @param type    The message type.
      * @param message The message.
      */
     @MainThread
-    private void dispatch(@NonNull final JSONObject message) {
-        if (BuildConfig.DEBUG) {
-            Log.i(TAG, String.format("Sending Zapic web page message: %s", message.toString()));
-        }
-
-        assert mWebView != null : "mWebView == null";
-        mWebView.evaluateJavascript("window.zapic.dispatch(" + message.toString() + ")", null);
+    private void dispatch(@NonNull final String type, @NonNull final JSONObject message) {
+        assert mDispatcher != null : "mDispatcher == null";
+        mDispatcher.dispatch(type, message, -1);
     }
 
     /**
@@ -149,9 +345,9 @@ private void dispatch(@NonNull final JSONObject message) {
      */
     @MainThread
     private void dispatchClosePage() {
-        if (mWebView != null) {
+        if (mDispatcher != null) {
             try {
-                dispatch(new JSONObject().put("type", "CLOSE_PAGE"));
+                dispatch("CLOSE_PAGE", new JSONObject().put("type", "CLOSE_PAGE"));
             } catch (JSONException ignored) {
             }
         }
@@ -165,9 +361,9 @@ private void dispatchClosePage() {
      */
     @MainThread
     private void dispatchOpenPage(@NonNull final String page) {
-        if (mWebView != null) {
+        if (mDispatcher != null) {
             try {
-                dispatch(new JSONObject().put("type", "OPEN_PAGE").put("payload", page));
+                dispatch("OPEN_PAGE", new JSONObject().put("type", "OPEN_PAGE").put("payload", page));
             } catch (JSONException ignored) {
             }
         }
@@ -178,6 +374,10 @@ private void dispatchOpenPage(@NonNull final String page) {
      */
     @MainThread
     void hideWebPage() {
+        if (mOverlay != null) {
+            mOverlay.dismiss(true);
+        }
+
         if (mActivity != null) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                 mActivity.finishAfterTransition();
@@ -187,16 +387,28 @@ void hideWebPage() {
         }
     }
 
+    /**
+     * Gets a value indicating whether the Zapic web page is visible (or has been requested).
+     *
+     * @return {@code true} if the Zapic web page is visible (or has been requested).
+     */
+    @CheckResult
+    @MainThread
+    boolean isWebPageVisible() {
+        return mActivity != null || mActivityRequested || mOverlay != null;
+    }
+
     /**
      * Called when the {@link ZapicActivity} is created. This dispatches an "OPEN_PAGE" message to
-     * the Zapic web page if the {@link WebView} is loaded.
+     * the Zapic web page if the {@link WebView} is loaded (or immediately shows the
+     * {@link WebView} if the page has been prepared and is ready).
      *
      * @param activity The activity.
      */
     @MainThread
-    void onActivityCreated(@NonNull final ZapicActivity activity) {
+    void onActivityCreated(@NonNull final BaseZapicActivity activity) {
         if (mActivity != null) {
-            final ZapicActivity oldActivity = mActivity;
+            final BaseZapicActivity oldActivity = mActivity;
             mActivity = null;
 
             Log.w(TAG, "Finishing existing ZapicActivity instance");
@@ -208,19 +420,31 @@ void onActivityCreated(@NonNull final ZapicActivity activity) {
             }
         }
 
+        if (mOverlay != null) {
+            mOverlay.dismiss(false);
+        }
+
+        final String preparedPage = mPreparedPageReady ? mPreparedPage : null;
+        clearPreparedPage();
+
         mActivity = activity;
         mActivityRequested = false;
+        mWebViewThrottler.setVisible(true);
         if (mPage == Page.LOADING_PAGE) {
             activity.showLoadingPage();
         } else if (mPage == Page.RETRY_PAGE) {
             activity.showRetryPage();
         } else {
-            activity.showLoadingPage();
-            if (mWebView == null) {
-                mPage = Page.LOADING_PAGE;
+            final String page = getPageFromActivityIntent(activity);
+            if (mWebView != null && page.equals(preparedPage)) {
+                activity.showWebPage(mWebView);
             } else {
-                final String page = getPageFromActivityIntent(activity);
-                dispatchOpenPage(page);
+                activity.showLoadingPage();
+                if (mWebView == null) {
+                    mPage = Page.LOADING_PAGE;
+                } else {
+                    dispatchOpenPage(page);
+                }
             }
         }
     }
@@ -231,10 +455,11 @@ void onActivityCreated(@NonNull final ZapicActivity activity) {
      * @param activity The activity.
      */
     @MainThread
-    void onActivityDestroyed(@NonNull final ZapicActivity activity) {
+    void onActivityDestroyed(@NonNull final BaseZapicActivity activity) {
         if (mActivity == activity) {
             dispatchClosePage();
             mActivity = null;
+            mWebViewThrottler.setVisible(false);
         }
     }
 
@@ -245,7 +470,7 @@ void onActivityDestroyed(@NonNull final ZapicActivity activity) {
      * @param activity The activity.
      */
     @MainThread
-    void onActivityUpdated(@NonNull final ZapicActivity activity) {
+    void onActivityUpdated(@NonNull final BaseZapicActivity activity) {
         if (mActivity == activity && mWebView != null) {
             final String page = getPageFromActivityIntent(activity);
             dispatchOpenPage(page);
@@ -253,115 +478,128 @@ void onActivityUpdated(@NonNull final ZapicActivity activity) {
     }
 
     /**
-     * Called when a {@link ZapicFrameworkFragment} instance pauses. This removes the fragment from
-     * the stack.
+     * Called when an activity pauses. This removes the activity from the stack.
+     *
+     * @param activity The activity.
+     */
+    @MainThread
+    void onActivityPaused(@NonNull final Activity activity) {
+        removeResumedActivity(activity);
+        dismissOverlayIfFinishing();
+    }
+
+    /**
+     * Called when an activity resumes. This adds the activity to the top of the stack.
+     *
+     * @param activity The activity.
+     */
+    @MainThread
+    void onActivityResumed(@NonNull final Activity activity) {
+        removeResumedActivity(activity);
+        mResumedActivities.add(new WeakReference<>(activity));
+        if (mActivityRequested) {
+            showWebPage();
+        } else {
+            showNotificationIfReady();
+        }
+    }
+
+    /**
+     * Called when a {@link ZapicFrameworkFragment} instance pauses. This removes the fragment's
+     * activity from the stack.
      *
      * @param fragment The fragment.
      */
     @MainThread
     void onPause(@NonNull final ZapicFrameworkFragment fragment) {
-        final ArrayList<Object> fragments = new ArrayList<>();
-        for (final Object reference : mFragments) {
-            if (fragment != reference) {
-                fragments.add(reference);
-            }
+        final Activity activity = fragment.getActivity();
+        if (activity != null) {
+            onActivityPaused(activity);
         }
-
-        mFragments = fragments;
     }
 
     /**
-     * Called when a {@link ZapicSupportFragment} instance pauses. This removes the fragment from
-     * the stack.
+     * Called when a {@link ZapicSupportFragment} instance pauses. This removes the fragment's
+     * activity from the stack.
      *
      * @param fragment The fragment.
      */
     @MainThread
     void onPause(@NonNull final ZapicSupportFragment fragment) {
-        final ArrayList<Object> fragments = new ArrayList<>();
-        for (final Object reference : mFragments) {
-            if (fragment != reference) {
-                fragments.add(reference);
-            }
+        final Activity activity = fragment.getActivity();
+        if (activity != null) {
+            onActivityPaused(activity);
         }
-
-        mFragments = fragments;
     }
 
     /**
-     * Called when a {@link ZapicFrameworkFragment} instance resumes. This adds the fragment to the
-     * top of the stack.
+     * Called when a {@link ZapicFrameworkFragment} instance resumes. This adds the fragment's
+     * activity to the top of the stack.
      *
      * @param fragment The fragment.
      */
     @MainThread
     void onResume(@NonNull final ZapicFrameworkFragment fragment) {
-        final ArrayList<Object> fragments = new ArrayList<>();
-        fragments.add(fragment);
-        for (final Object reference : mFragments) {
-            if (fragment != reference) {
-                fragments.add(reference);
-            }
-        }
-
-        mFragments = fragments;
-        if (mActivityRequested) {
-            showWebPage();
-        } else {
-            showNotificationIfReady();
+        final Activity activity = fragment.getActivity();
+        if (activity != null) {
+            onActivityResumed(activity);
         }
     }
 
     /**
-     * Called when a {@link ZapicSupportFragment} instance resumes. This adds the fragment to the
-     * top of the stack.
+     * Called when a {@link ZapicSupportFragment} instance resumes. This adds the fragment's
+     * activity to the top of the stack.
      *
      * @param fragment The fragment.
      */
     @MainThread
     void onResume(@NonNull final ZapicSupportFragment fragment) {
-        final ArrayList<Object> fragments = new ArrayList<>();
-        fragments.add(fragment);
-        for (final Object reference : mFragments) {
-            if (fragment != reference) {
-                fragments.add(reference);
-            }
-        }
-
-        mFragments = fragments;
-        if (mActivityRequested) {
-            showWebPage();
-        } else {
-            showNotificationIfReady();
+        final Activity activity = fragment.getActivity();
+        if (activity != null) {
+            onActivityResumed(activity);
         }
     }
 
     /**
-     * Called when the {@link WebView} instance has crashed.
+     * Called when the {@link WebView} instance has crashed (or has been destroyed to free memory).
      */
     @MainThread
     void onWebViewCrashed() {
+        mDispatcher = null;
+        mPreparedPageReady = false;
         mWebView = null;
+        mWebViewThrottler.onWebViewCrashed();
         mPage = Page.LOADING_PAGE;
 
         if (mActivity != null) {
             mActivity.showLoadingPage();
         }
+
+        if (mOverlay != null) {
+            mOverlay.showLoadingPage();
+        }
     }
 
     /**
      * Called when the {@link WebView} instance has loaded the Zapic web page.
      *
-     * @param webView The {@link WebView} instance.
+     * @param webView    The {@link WebView} instance.
+     * @param dispatcher The dispatcher used to send messages to the Zapic web page.
      */
     @MainThread
-    void onWebViewLoaded(@NonNull final WebView webView) {
+    void onWebViewLoaded(@NonNull final WebView webView, @NonNull final WebViewDispatcher dispatcher) {
+        mDispatcher = dispatcher;
         mWebView = webView;
+        mWebViewThrottler.onWebViewLoaded(webView);
         mPage = Page.WEB_PAGE;
 
         if (mActivity != null) {
             final String page = getPageFromActivityIntent(mActivity);
             dispatchOpenPage(page);
+        } else if (mOverlay != null) {
+            dispatchOpenPage(mOverlay.getPage());
+        } else if (mPreparedPage != null) {
+            dispatchPreparedPage();
         }
     }
 
@@ -370,6 +608,19 @@ void onWebViewLoaded(@NonNull final WebView webView) {
      */
     @MainThread
     void onWebViewReady() {
+        if (mActivity == null && mOverlay == null && mPreparedPage != null) {
+            mPreparedPageReady = true;
+        }
+
+        if (mOverlay != null) {
+            if (mWebView == null) {
+                mPage = Page.LOADING_PAGE;
+                mOverlay.showLoadingPage();
+            } else {
+                mOverlay.showWebPage(mWebView);
+            }
+        }
+
         if (mActivity != null) {
             if (mWebView == null) {
                 mPage = Page.LOADING_PAGE;
@@ -380,11 +631,107 @@ void onWebViewReady() {
         }
     }
 
+    /**
+     * Opens the specified page in the background so that it is ready to be shown immediately.
+     * <p>
+     * This resumes the {@link WebView} instance (if it is throttled), dispatches an "OPEN_PAGE"
+     * message to the Zapic web page, and enables offscreen pre-rasterization. If a
+     * {@link ZapicActivity} is created for the same page, it shows the {@link WebView} instance
+     * without waiting for another "PAGE_READY" message. If a {@link ZapicActivity} is not created
+     * within {@link #PREPARE_TIMEOUT} milliseconds, the page is closed and the {@link WebView}
+     * instance is throttled again.
+     *
+     * @param page The page to prepare.
+     * @see ZapicPages
+     */
+    @MainThread
+    void preparePage(@NonNull final String page) {
+        if (mActivity != null || mOverlay != null) {
+            return;
+        }
+
+        mHandler.removeCallbacks(mPrepareTimeoutRunnable);
+        mHandler.postDelayed(mPrepareTimeoutRunnable, PREPARE_TIMEOUT);
+        mPreparedPage = page;
+        mPreparedPageReady = false;
+        mWebViewThrottler.setVisible(true);
+        dispatchPreparedPage();
+    }
+
+    /**
+     * Dispatches an "OPEN_PAGE" message for the prepared page to the Zapic web page and enables
+     * offscreen pre-rasterization.
+     */
+    @MainThread
+    private void dispatchPreparedPage() {
+        if (mPreparedPage == null || mWebView == null) {
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            final WebSettings settings = mWebView.getSettings();
+            settings.setOffscreenPreRaster(true);
+        }
+
+        dispatchOpenPage(mPreparedPage);
+    }
+
+    /**
+     * Forgets the prepared page and disables offscreen pre-rasterization.
+     */
+    @MainThread
+    private void clearPreparedPage() {
+        if (mPreparedPage == null) {
+            return;
+        }
+
+        mHandler.removeCallbacks(mPrepareTimeoutRunnable);
+        mPreparedPage = null;
+        mPreparedPageReady = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && mWebView != null) {
+            final WebSettings settings = mWebView.getSettings();
+            settings.setOffscreenPreRaster(false);
+        }
+    }
+
+    /**
+     * Closes the prepared page if it has not been shown and throttles the {@link WebView} instance
+     * again.
+     */
+    @MainThread
+    private void onPrepareTimeout() {
+        if (mPreparedPage == null || mActivity != null || mOverlay != null) {
+            return;
+        }
+
+        clearPreparedPage();
+        dispatchClosePage();
+        mWebViewThrottler.setVisible(mActivityRequested);
+    }
+
+    /**
+     * Processes an image chosen by the player in the background (see {@link ImageProcessor}).
+     *
+     * @param imageUri         The image URI.
+     * @param imageFile        The file that backs {@code imageUri} or {@code null} if it is not
+     *                         known.
+     * @param filePathCallback The callback that is invoked with the processed file path.
+     */
+    @MainThread
+    void processImage(@NonNull final Uri imageUri, @Nullable final File imageFile, @NonNull final ValueCallback<Uri[]> filePathCallback) {
+        if (mImageProcessor == null) {
+            filePathCallback.onReceiveValue(new Uri[]{imageUri});
+        } else {
+            mImageProcessor.process(imageUri, imageFile, filePathCallback);
+        }
+    }
+
     /**
      * Shows an image chooser on the {@link ZapicActivity} instance.
      * <p>
      * This will cancel the image chooser by invoking {@code filePathCallback} with {@code null} if
-     * a {@link ZapicActivity} instance does not exist.
+     * a {@link ZapicActivity} instance does not exist. The image chooser is not supported by the
+     * {@link ZapicOverlay} because the game's activity receives the result.
      *
      * @param filePathCallback The callback that must be invoked with the chosen file path(s). This
      *                         may be invoked with {@code null} to cancel the image chooser.
@@ -408,25 +755,59 @@ void showLoadingPage() {
         if (mActivity != null) {
             mActivity.showLoadingPage();
         }
+
+        if (mOverlay != null) {
+            mOverlay.showLoadingPage();
+        }
+    }
+
+    /**
+     * Sets the limits of images chosen by the player.
+     *
+     * @param maxDimension The maximum width and height (in pixels) of a processed image.
+     * @param quality      The quality (between {@code 0} and {@code 100}) of a processed image.
+     */
+    @MainThread
+    void setImageLimits(final int maxDimension, final int quality) {
+        if (mImageProcessor != null) {
+            mImageProcessor.setLimits(maxDimension, quality);
+        }
+    }
+
+    /**
+     * Sets the limits of the notification message queue.
+     *
+     * @param maxSize           The maximum number of queued notification messages.
+     * @param coalescingEnabled {@code true} to coalesce queued notification messages with the same
+     *                          group.
+     */
+    @MainThread
+    void setNotificationLimits(final int maxSize, final boolean coalescingEnabled) {
+        mNotifications.setLimits(maxSize, coalescingEnabled);
     }
 
     /**
      * Shows a notification message on the topmost activity.
      * <p>
      * This automatically queues notification messages when another notification message has already
-     * been shown.
+     * been shown (see {@link NotificationQueue}).
      *
      * @param notification The notification message.
      */
     @MainThread
     void showNotification(@NonNull final Notification notification) {
+        if (mService != null && getTopmostActivity() == null && mService.relayNotification(notification)) {
+            return;
+        }
+
         mNotifications.offer(notification);
         showNotificationIfReady();
     }
 
     /**
      * Shows a notification message on the topmost activity if another notification message has not
-     * already been shown.
+     * already been shown. If the last notification message was shown less than
+     * {@link #NOTIFICATION_INTERVAL} ago, this is retried once the interval has passed.
      */
     @MainThread
     private void showNotificationIfReady() {
@@ -434,26 +815,42 @@ private void showNotificationIfReady() {
             return;
         }
 
-        final Notification notification = mNotifications.peek();
-        if (notification == null) {
+        if (mNotifications.peek() == null) {
             return;
         }
 
-        final Activity activity = getActivityOfTopmostFragment();
+        final long elapsedTime = SystemClock.uptimeMillis() - mNotificationTime;
+        if (mNotificationTime != 0 && elapsedTime < NOTIFICATION_INTERVAL) {
+            mHandler.removeCallbacks(mNotificationRunnable);
+            mHandler.postDelayed(mNotificationRunnable, NOTIFICATION_INTERVAL - elapsedTime);
+            return;
+        }
+
+        final Activity activity = getTopmostActivity();
         if (activity == null) {
             return;
         }
 
+        final Notification notification = mNotifications.poll();
+        assert notification != null : "notification == null";
+        mNotificationTime = SystemClock.uptimeMillis();
+        mShownNotification = notification;
+
+        // Shorten the notification message while others are waiting so a burst drains quickly.
         Alerter alerter = Alerter.create(activity)
                 .enableInfiniteDuration(false)
+                .setDuration(mNotifications.isEmpty() ? NOTIFICATION_DURATION : NOTIFICATION_BACKLOG_DURATION)
                 .enableSwipeToDismiss()
                 .enableVibration(false)
                 .setOnHideListener(mAlertListener)
                 .setTitle(notification.getTitle());
 
-        final Bitmap image = notification.getImage();
-        if (image != null) {
-            alerter = alerter.setIcon(image);
+        final byte[] imageBytes = notification.getImageBytes();
+        if (imageBytes != null) {
+            mNotificationIcon = mIconDecoder.decode(imageBytes);
+            if (mNotificationIcon != null) {
+                alerter = alerter.setIcon(mNotificationIcon);
+            }
         }
 
         final String text = notification.getText();
@@ -479,20 +876,26 @@ void showRetryPage() {
         if (mActivity != null) {
             mActivity.showRetryPage();
         }
+
+        if (mOverlay != null) {
+            mOverlay.showRetryPage();
+        }
     }
 
     /**
      * Shows an app to share content.
      * <p>
-     * This will ignore the intent if a {@link ZapicActivity} instance does not exist.
+     * This will ignore the intent if a {@link ZapicActivity} or {@link ZapicOverlay} instance does
+     * not exist.
      *
      * @param intent The intent.
      */
     @MainThread
     void showShare(@NonNull final Intent intent) {
-        if (mActivity != null) {
-            if (intent.resolveActivity(mActivity.getPackageManager()) != null) {
-                mActivity.startActivity(intent);
+        final Activity activity = getPresentingActivity();
+        if (activity != null) {
+            if (intent.resolveActivity(activity.getPackageManager()) != null) {
+                activity.startActivity(intent);
             }
         }
     }
@@ -500,14 +903,16 @@ void showShare(@NonNull final Intent intent) {
     /**
      * Shows an app chooser to share content on the {@link ZapicActivity} instance.
      * <p>
-     * This will ignore the intent if a {@link ZapicActivity} instance does not exist.
+     * This will ignore the intent if a {@link ZapicActivity} or {@link ZapicOverlay} instance does
+     * not exist.
      *
      * @param intent The intent.
      */
     @MainThread
     void showShareChooser(@NonNull final Intent intent) {
-        if (mActivity != null) {
-            mActivity.startActivity(Intent.createChooser(intent, "Share"));
+        final Activity activity = getPresentingActivity();
+        if (activity != null) {
+            activity.startActivity(Intent.createChooser(intent, "Share"));
         }
     }
 
@@ -517,41 +922,247 @@ void showShareChooser(@NonNull final Intent intent) {
     @MainThread
     void showWebPage() {
         mPage = Page.WEB_PAGE;
+        mWebViewThrottler.setVisible(true);
 
-        final Activity activity = getActivityOfTopmostFragment();
-        if (activity != null) {
+        final Activity activity = getTopmostActivity();
+        if (activity != null && mOverlayEnabled && mActivity == null) {
+            showOverlay(activity, "current");
+        } else if (activity != null) {
             mActivityRequested = false;
             activity.startActivity(ZapicActivity.createIntent(activity, "current"));
+        } else if (mService != null && mService.relayShowPage()) {
+            mActivityRequested = false;
         } else {
             mActivityRequested = true;
         }
     }
 
     /**
-     * Gets the activity of the topmost fragment.
+     * Responds to memory pressure by evicting the decoded notification message icons.
+     *
+     * @param level The memory trim level.
+     */
+    @MainThread
+    void onTrimMemory(final int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            mIconDecoder.trimMemory();
+        }
+    }
+
+    /**
+     * Captures a snapshot of the {@link WebView} instance to show as a placeholder the next time
+     * the loading page is shown.
+     *
+     * @param webView The {@link WebView} instance.
+     */
+    @MainThread
+    void captureSnapshot(@NonNull final WebView webView) {
+        if (mSnapshotCache != null) {
+            mSnapshotCache.capture(webView);
+        }
+    }
+
+    /**
+     * Loads the placeholder snapshot saved by a previous session in the background.
+     */
+    @MainThread
+    void loadSnapshot() {
+        if (mSnapshotCache != null) {
+            mSnapshotCache.load();
+        }
+    }
+
+    /**
+     * Deletes the placeholder snapshot. This is invoked when the player logs out so the next
+     * player does not see the previous player's page.
+     */
+    @MainThread
+    void clearSnapshot() {
+        if (mSnapshotCache != null) {
+            mSnapshotCache.clear();
+        }
+    }
+
+    /**
+     * Gets the placeholder snapshot of the last fully rendered page.
+     *
+     * @param context The context used to get the display orientation.
+     * @return The snapshot or {@code null} if a snapshot is not available.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    Bitmap getSnapshot(@NonNull final Context context) {
+        return mSnapshotCache == null ? null : mSnapshotCache.get(context);
+    }
+
+    /**
+     * Gets a value indicating whether the {@link WebView} instance is shown in a
+     * {@link ZapicOverlay} instead of a {@link ZapicActivity}.
+     *
+     * @return {@code true} if the overlay mode is enabled.
+     */
+    @AnyThread
+    @CheckResult
+    boolean isOverlayEnabled() {
+        return mOverlayEnabled;
+    }
+
+    /**
+     * Called when a {@link ZapicOverlay} instance has been dismissed. This dispatches a
+     * "CLOSE_PAGE" message to the Zapic web page.
+     *
+     * @param overlay The overlay.
+     */
+    @MainThread
+    void onOverlayDismissed(@NonNull final ZapicOverlay overlay) {
+        if (mOverlay == overlay) {
+            dispatchClosePage();
+            mOverlay = null;
+            mWebViewThrottler.setVisible(mActivity != null || mActivityRequested);
+        }
+    }
+
+    /**
+     * Sets a value indicating whether the {@link WebView} instance is shown in a
+     * {@link ZapicOverlay} instead of a {@link ZapicActivity}.
+     *
+     * @param overlayEnabled {@code true} to enable the overlay mode.
+     */
+    @AnyThread
+    void setOverlayEnabled(final boolean overlayEnabled) {
+        mOverlayEnabled = overlayEnabled;
+    }
+
+    /**
+     * Shows the specified page in a {@link ZapicOverlay} attached to the specified activity's
+     * window. If an overlay is already shown on another activity (or is being dismissed), it is
+     * removed immediately.
+     *
+     * @param activity The game's activity.
+     * @param page     The page to show.
+     * @see ZapicPages
+     */
+    @MainThread
+    void showOverlay(@NonNull final Activity activity, @NonNull final String page) {
+        if (mActivity != null) {
+            // A ZapicActivity is already shown; route the page to it.
+            activity.startActivity(ZapicActivity.createIntent(activity, page));
+            return;
+        }
+
+        if (mOverlay != null && (mOverlay.isDismissed() || mOverlay.getActivity() != activity)) {
+            // An overlay that is animating out never shows the WebView again; remove it now.
+            mOverlay.dismiss(false);
+        }
+
+        final String preparedPage = mPreparedPageReady ? mPreparedPage : null;
+        clearPreparedPage();
+
+        final boolean created = mOverlay == null;
+        if (created) {
+            mOverlay = new ZapicOverlay(activity, this, page);
+            mOverlay.show();
+        } else {
+            mOverlay.setPage(page);
+        }
+
+        mActivityRequested = false;
+        mWebViewThrottler.setVisible(true);
+        if (mPage == Page.LOADING_PAGE) {
+            mOverlay.showLoadingPage();
+        } else if (mPage == Page.RETRY_PAGE) {
+            mOverlay.showRetryPage();
+        } else if (mWebView != null && created && page.equals(preparedPage)) {
+            mOverlay.showWebPage(mWebView);
+        } else if (mWebView == null) {
+            mPage = Page.LOADING_PAGE;
+            mOverlay.showLoadingPage();
+        } else {
+            if (created) {
+                mOverlay.showLoadingPage();
+            }
+
+            dispatchOpenPage(page);
+        }
+    }
+
+    /**
+     * Sets the {@link ZapicService} instance used to relay notification messages and requests to
+     * show the Zapic web page to the game process.
+     *
+     * @param service The {@link ZapicService} instance or {@code null} if the service has been
+     *                destroyed.
+     */
+    @MainThread
+    void setService(@Nullable final ZapicService service) {
+        mService = service;
+    }
+
+    /**
+     * Dismisses the {@link ZapicOverlay} instance (without an animation) if its activity is
+     * finishing or being recreated.
+     */
+    @MainThread
+    private void dismissOverlayIfFinishing() {
+        if (mOverlay != null) {
+            final Activity activity = mOverlay.getActivity();
+            if (activity.isFinishing() || activity.isChangingConfigurations()) {
+                mOverlay.dismiss(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the activity presenting the {@link WebView} instance.
+     *
+     * @return The {@link ZapicActivity} instance, the activity of the {@link ZapicOverlay}
+     *         instance, or {@code null} if neither exists.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    private Activity getPresentingActivity() {
+        if (mActivity != null) {
+            return mActivity;
+        }
+
+        return mOverlay == null ? null : mOverlay.getActivity();
+    }
+
+    /**
+     * Gets the topmost resumed activity.
      *
      * @return The activity or {@code null} if one does not exist.
      */
     @CheckResult
     @MainThread
     @Nullable
-    private Activity getActivityOfTopmostFragment() {
-        final Object fragment;
-        try {
-            fragment = mFragments.get(0);
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
-
-        Activity activity = null;
-        if (fragment != null) {
-            activity = SupportFragmentUtilities.tryGetActivity(fragment);
-            if (activity == null) {
-                activity = FrameworkFragmentUtilities.tryGetActivity(fragment);
+    private Activity getTopmostActivity() {
+        for (int i = mResumedActivities.size() - 1; i >= 0; i--) {
+            final Activity activity = mResumedActivities.get(i).get();
+            if (activity != null) {
+                return activity;
             }
         }
 
-        return activity;
+        return null;
+    }
+
+    /**
+     * Removes an activity (and any garbage collected activities) from the stack of resumed
+     * activities.
+     *
+     * @param activity The activity.
+     */
+    @MainThread
+    private void removeResumedActivity(@NonNull final Activity activity) {
+        for (int i = mResumedActivities.size() - 1; i >= 0; i--) {
+            final Activity resumedActivity = mResumedActivities.get(i).get();
+            if (resumedActivity == null || resumedActivity == activity) {
+                mResumedActivities.remove(i);
+            }
+        }
     }
 
     /**
@@ -600,7 +1211,7 @@ private class AlertListener implements OnClickListener, OnHideAlertListener {
         @MainThread
         @Override
         public void onClick(@Nullable final View view) {
-            final Notification notification = mNotifications.peek();
+            final Notification notification = mShownNotification;
             if (notification != null) {
                 final JSONObject metadata = notification.getMetadata();
                 if (metadata != null) {
@@ -612,7 +1223,12 @@ public void onClick(@Nullable final View view) {
         @MainThread
         @Override
         public void onHide() {
-            mNotifications.poll();
+            if (mNotificationIcon != null) {
+                mIconDecoder.release(mNotificationIcon);
+                mNotificationIcon = null;
+            }
+
+            mShownNotification = null;
             showNotificationIfReady();
         }
     }
@@ -80,6 +80,12 @@ final class WebPageAsyncTask extends AsyncTask<Void, Integer, WebPage> implement
     @NonNull
     private final FileManager mFileManager;
 
+    /**
+     * The {@link StartupTracer} instance.
+     */
+    @NonNull
+    private final StartupTracer mStartupTracer;
+
     /**
      * The callback invoked after an attempt to download the Zapic web page succeeds. This will be
      * invoked at most one time.
@@ -96,12 +102,14 @@ final class WebPageAsyncTask extends AsyncTask<Void, Integer, WebPage> implement
      *                        succeeds. This will be invoked at most one time.
      * @param failureCallback The callback invoked after an attempt to download the Zapic web page
      *                        fails. This may be invoked multiple times.
+     * @param startupTracer   The {@link StartupTracer} instance.
      */
     @AnyThread
-    WebPageAsyncTask(@NonNull final Context context, @NonNull final ValueCallback<WebPage> successCallback, @NonNull final ValueCallback<Integer> failureCallback) {
+    WebPageAsyncTask(@NonNull final Context context, @NonNull final ValueCallback<WebPage> successCallback, @NonNull final ValueCallback<Integer> failureCallback, @NonNull final StartupTracer startupTracer) {
         mApplicationContext = context.getApplicationContext();
         mFailureCallback = failureCallback;
         mFileManager = new FileManager(mApplicationContext);
+        mStartupTracer = startupTracer;
         mSuccessCallback = successCallback;
     }
 
@@ -121,12 +129,16 @@ private void cacheWebPage(@NonNull final WebPage webPage) {
     @Override
     @WorkerThread
     protected WebPage doInBackground(final Void... voids) {
+        mStartupTracer.beginSection(StartupTracer.PHASE_DELETE_SHARE_DIR);
         mFileManager.deleteShareDir(this);
+        mStartupTracer.endSection(StartupTracer.PHASE_DELETE_SHARE_DIR);
         if (isCancelled()) {
             return null;
         }
 
+        mStartupTracer.beginSection(StartupTracer.PHASE_GET_WEB_PAGE);
         final WebPage cachedWebPage = getCachedWebPage();
+        mStartupTracer.endSection(StartupTracer.PHASE_GET_WEB_PAGE);
         if (isCancelled()) {
             return null;
         }
@@ -134,27 +146,34 @@ protected WebPage doInBackground(final Void... voids) {
         boolean fromCache;
         WebPage webPage;
         if (cachedWebPage == null || isCachedWebPageStale(cachedWebPage)) {
-            webPage = downloadWebPage(cachedWebPage);
-            if (isCancelled()) {
-                return null;
-            }
-
-            assert webPage != null : "webPage == null";
-            if (webPage == cachedWebPage) {
-                fromCache = true;
-            } else {
-                fromCache = false;
-                cacheWebPage(webPage);
+            mStartupTracer.beginSection(StartupTracer.PHASE_DOWNLOAD_WEB_PAGE);
+            try {
+                webPage = downloadWebPage(cachedWebPage);
                 if (isCancelled()) {
                     return null;
                 }
+
+                assert webPage != null : "webPage == null";
+                if (webPage == cachedWebPage) {
+                    fromCache = true;
+                } else {
+                    fromCache = false;
+                    cacheWebPage(webPage);
+                    if (isCancelled()) {
+                        return null;
+                    }
+                }
+            } finally {
+                mStartupTracer.endSection(StartupTracer.PHASE_DOWNLOAD_WEB_PAGE);
             }
         } else {
             fromCache = true;
             webPage = cachedWebPage;
         }
 
+        mStartupTracer.beginSection(StartupTracer.PHASE_INJECT_SCRIPT);
         webPage = injectScript(webPage);
+        mStartupTracer.endSection(StartupTracer.PHASE_INJECT_SCRIPT);
         if (fromCache) {
             Log.i(TAG, "Loading cached Zapic web page");
         } else {
@@ -365,6 +384,14 @@ private WebPage injectScript(@NonNull final WebPage webPage) {
                 "window.androidWebViewWatchdog = window.setTimeout(function () {" +
                 "  window.androidWebView.dispatch('{\"type\":\"APP_FAILED\"}');" +
                 "}, " + Integer.toString(TIMEOUT, 10) + ");" +
+                "window.addEventListener('message', function onZapicPort(event) {" +
+                "  if (event.source === null && event.data === 'zapic-port' && event.ports && event.ports.length === 1) {" +
+                "    window.removeEventListener('message', onZapicPort);" +
+                "    event.ports[0].onmessage = function (message) {" +
+                "      window.zapic.dispatch(JSON.parse(message.data))" +
+                "    };" +
+                "  }" +
+                "});" +
                 "window.zapic = {" +
                 "  environment: 'webview'," +
                 "  version: 3," +
@@ -378,6 +405,9 @@ private WebPage injectScript(@NonNull final WebPage webPage) {
                 "      window.androidWebView.dispatch(JSON.stringify(action))" +
                 "    });" +
                 "  }," +
+                "  putImage: function (id, image) {" +
+                "    window.androidWebView.putImage(id, new Int8Array(image))" +
+                "  }," +
                 "  packageName: '" + packageName.replace("'", "\\'") + "', " +
                 "  androidVersion: '" + Integer.toString(Build.VERSION.SDK_INT, 10) + "'," +
                 "  sdkVersion: '" + BuildConfig.VERSION_NAME.replace("'", "\\'") + "'," +
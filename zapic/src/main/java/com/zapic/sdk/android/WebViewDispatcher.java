@@ -0,0 +1,137 @@
+package com.zapic.sdk.android;
+
+import android.net.Uri;
+import android.os.Build;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+import android.util.Log;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+import org.json.JSONObject;
+
+/**
+ * Dispatches messages to the Zapic web page.
+ * <p>
+ * On Android 6.0 (API 23) and later, this transfers a {@link WebMessagePort} to the Zapic web page
+ * and posts pre-serialized messages to the port. The bootstrap script parses the messages and
+ * routes them to the Zapic web page. This avoids compiling a new script for each message. The
+ * bootstrap script only accepts the first port posted by the application (not ports posted by
+ * other frames or windows). On earlier versions (or if the port cannot be created), this falls
+ * back to {@link WebView#evaluateJavascript(String, android.webkit.ValueCallback)}.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class WebViewDispatcher {
+    /**
+     * The message used to transfer the port to the Zapic web page. This must match the bootstrap
+     * script.
+     */
+    @NonNull
+    private static final String PORT_MESSAGE = "zapic-port";
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "WebViewDispatcher";
+
+    /**
+     * The {@link MetricsRecorder} instance.
+     */
+    @NonNull
+    private final MetricsRecorder mMetricsRecorder;
+
+    /**
+     * The port used to post messages to the Zapic web page or {@code null} if messages are
+     * evaluated as scripts.
+     */
+    @Nullable
+    private WebMessagePort mPort;
+
+    /**
+     * The {@link WebView} instance.
+     */
+    @NonNull
+    private final WebView mWebView;
+
+    /**
+     * Creates a new {@link WebViewDispatcher} instance. This must be called after the Zapic web
+     * page has started.
+     *
+     * @param webView         The {@link WebView} instance.
+     * @param origin          The origin of the Zapic web page.
+     * @param metricsRecorder The {@link MetricsRecorder} instance.
+     */
+    @MainThread
+    WebViewDispatcher(@NonNull final WebView webView, @NonNull final Uri origin, @NonNull final MetricsRecorder metricsRecorder) {
+        mMetricsRecorder = metricsRecorder;
+        mPort = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? createPort(webView, origin) : null;
+        mWebView = webView;
+    }
+
+    /**
+     * Creates a message channel and transfers one of its ports to the Zapic web page.
+     *
+     * @param webView The {@link WebView} instance.
+     * @param origin  The origin of the Zapic web page.
+     * @return The other port or {@code null} if the message channel cannot be created.
+     */
+    @CheckResult
+    @MainThread
+    @Nullable
+    @RequiresApi(Build.VERSION_CODES.M)
+    private static WebMessagePort createPort(@NonNull final WebView webView, @NonNull final Uri origin) {
+        try {
+            final WebMessagePort[] ports = webView.createWebMessageChannel();
+            webView.postWebMessage(new WebMessage(PORT_MESSAGE, new WebMessagePort[]{ports[1]}), origin);
+            return ports[0];
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to create the Zapic web page message channel", e);
+            return null;
+        }
+    }
+
+    /**
+     * Closes the message channel. Subsequent messages are evaluated as scripts.
+     */
+    @MainThread
+    void close() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && mPort != null) {
+            mPort.close();
+        }
+
+        mPort = null;
+    }
+
+    /**
+     * Dispatches a message to the Zapic web page.
+     *
+     * @param type      The message type.
+     * @param message   The message.
+     * @param queueTime The time (in nanoseconds) the message waited to be sent or {@code -1} if it
+     *                  is not known.
+     */
+    @MainThread
+    void dispatch(@NonNull final String type, @NonNull final JSONObject message, final long queueTime) {
+        final long startTime = System.nanoTime();
+        final String serializedMessage = message.toString();
+        final long encodedTime = System.nanoTime();
+        if (BuildConfig.DEBUG) {
+            Log.i(TAG, String.format("Sending Zapic web page message: %s", serializedMessage));
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && mPort != null) {
+            mPort.postMessage(new WebMessage(serializedMessage));
+        } else {
+            mWebView.evaluateJavascript("window.zapic.dispatch(" + serializedMessage + ")", null);
+        }
+
+        mMetricsRecorder.recordSent(type, 2L * serializedMessage.length(), queueTime, encodedTime - startTime, System.nanoTime() - encodedTime);
+    }
+}
@@ -6,19 +6,50 @@
 import android.support.annotation.WorkerThread;
 import android.util.Log;
 import android.webkit.JavascriptInterface;
-import android.webkit.ValueCallback;
 
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An object injected into the Zapic web page. This provides the JavaScript context a
- * {@code dispatch} method to pass Flux Standard Action messages to the native SDK.
+ * {@code dispatch} method to pass Flux Standard Action messages to the native SDK and a
+ * {@code putImage} method to pass images to the native SDK as raw bytes (instead of Base64-encoded
+ * strings embedded in messages).
+ * <p>
+ * Messages are consumed by a single consumer in the order they are received. Large messages (for
+ * example, messages carrying Base64-encoded images) are decoded on a small worker pool, but their
+ * results are re-sequenced and published in the order the messages were received.
  *
+ * @param <T> The decoded message type.
  * @author Kyle Dodson
  * @since 1.2.0
  */
-final class WebViewJavascriptBridge {
+final class WebViewJavascriptBridge<T> {
+    /**
+     * The length (in characters) above which a message is decoded on the worker pool.
+     */
+    private static final int HEAVY_MESSAGE_LENGTH = 16 * 1024;
+
+    /**
+     * The time (in seconds) an idle thread is kept alive.
+     */
+    private static final int KEEP_ALIVE_TIME = 30;
+
+    /**
+     * The maximum number of images held for messages that have not been decoded yet.
+     */
+    private static final int MAX_IMAGES = 8;
+
     /**
      * The tag used to identify log messages.
      */
@@ -26,28 +57,110 @@ final class WebViewJavascriptBridge {
     private static final String TAG = "WebViewJavascriptBridge";
 
     /**
-     * The executor service used to dispatch messages from the Zapic web page on a thread pool
-     * thread.
+     * The number of threads used to decode large messages.
+     */
+    private static final int WORKER_POOL_SIZE = 2;
+
+    /**
+     * The executor used to run the single message consumer.
+     */
+    @NonNull
+    private final ThreadPoolExecutor mConsumerExecutor;
+
+    /**
+     * A value indicating whether the message consumer has been scheduled or is running.
+     */
+    @NonNull
+    private final AtomicBoolean mDraining;
+
+    /**
+     * The task that runs the message consumer.
+     */
+    @NonNull
+    private final Runnable mDrainRunnable;
+
+    /**
+     * A value indicating whether an image has been received since the last message was received.
+     */
+    @NonNull
+    private final AtomicBoolean mImageReceived;
+
+    /**
+     * The images received from the Zapic web page, by identifier. The oldest images are discarded
+     * if they are not taken. This must only be accessed while holding its lock.
+     */
+    @NonNull
+    private final LinkedHashMap<String, byte[]> mImages;
+
+    /**
+     * The decoder and publisher of Zapic web page messages.
      */
     @NonNull
-    private final ExecutorService mExecutorService;
+    private final MessageHandler<T> mMessageHandler;
 
     /**
-     * The callback invoked after receiving a Zapic web page message. This may be invoked multiple
-     * times.
+     * The {@link MetricsRecorder} instance.
      */
     @NonNull
-    private final ValueCallback<String> mMessageCallback;
+    private final MetricsRecorder mMetricsRecorder;
+
+    /**
+     * The queue of received, undecoded Zapic web page messages.
+     */
+    @NonNull
+    private final ConcurrentLinkedQueue<DecodeTask> mMessages;
+
+    /**
+     * The queue of decoding (or decoded) Zapic web page messages in the order they were received.
+     * This must only be accessed by the message consumer.
+     */
+    @NonNull
+    private final ArrayDeque<FutureTask<T>> mPending;
+
+    /**
+     * A value indicating whether a worker pool task has completed since the message consumer last
+     * published decoded messages.
+     */
+    @NonNull
+    private final AtomicBoolean mSignaled;
+
+    /**
+     * The executor used to decode large messages.
+     */
+    @NonNull
+    private final ThreadPoolExecutor mWorkerExecutor;
 
     /**
      * Creates a new {@link WebViewJavascriptBridge} instance.
      *
-     * @param messageCallback The callback invoked after receiving a Zapic web page message. This
-     *                        may be invoked multiple times.
+     * @param messageHandler  The decoder and publisher of Zapic web page messages.
+     * @param metricsRecorder The {@link MetricsRecorder} instance.
      */
-    WebViewJavascriptBridge(@NonNull final ValueCallback<String> messageCallback) {
-        mExecutorService = Executors.unconfigurableExecutorService(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), Executors.defaultThreadFactory()));
-        mMessageCallback = messageCallback;
+    WebViewJavascriptBridge(@NonNull final MessageHandler<T> messageHandler, @NonNull final MetricsRecorder metricsRecorder) {
+        mConsumerExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory());
+        mConsumerExecutor.allowCoreThreadTimeOut(true);
+        mDraining = new AtomicBoolean(false);
+        mDrainRunnable = new Runnable() {
+            @Override
+            @WorkerThread
+            public void run() {
+                drain();
+            }
+        };
+        mImageReceived = new AtomicBoolean(false);
+        mImages = new LinkedHashMap<String, byte[]>(MAX_IMAGES, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, byte[]> eldest) {
+                return size() > MAX_IMAGES;
+            }
+        };
+        mMessageHandler = messageHandler;
+        mMessages = new ConcurrentLinkedQueue<>();
+        mMetricsRecorder = metricsRecorder;
+        mPending = new ArrayDeque<>();
+        mSignaled = new AtomicBoolean(false);
+        mWorkerExecutor = new ThreadPoolExecutor(WORKER_POOL_SIZE, WORKER_POOL_SIZE, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), Executors.defaultThreadFactory());
+        mWorkerExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
@@ -66,33 +179,174 @@ public void dispatch(@Nullable final String message) {
             return;
         }
 
-        mExecutorService.execute(new DecodeAndProcessMessageRunnable(message));
+        // A message that follows an image likely references the image and is decoded on the worker
+        // pool.
+        final boolean heavy = mImageReceived.getAndSet(false) || message.length() > HEAVY_MESSAGE_LENGTH;
+        mMessages.offer(new DecodeTask(message, heavy));
+        scheduleDrain();
     }
 
     /**
-     * A runnable task that dispatches a Zapic web page message on a thread pool thread.
+     * Receives an image from the Zapic web page. The Zapic web page must call this before it
+     * dispatches a message that references the image by its identifier.
+     * <p>
+     * The Zapic web page should pass an {@code Int8Array}; the JavaScript bridge converts typed
+     * arrays to Java arrays.
+     *
+     * @param id    The image identifier.
+     * @param image The image bytes.
      */
-    private final class DecodeAndProcessMessageRunnable implements Runnable {
+    @JavascriptInterface
+    @WorkerThread
+    public void putImage(@Nullable final String id, @Nullable final byte[] image) {
+        if (BuildConfig.DEBUG) {
+            Log.i(TAG, String.format("Received Zapic web page image: %s (%d bytes)", id, image == null ? 0 : image.length));
+        }
+
+        if (id == null || image == null) {
+            return;
+        }
+
+        synchronized (mImages) {
+            mImages.put(id, image);
+        }
+
+        mImageReceived.set(true);
+        mMetricsRecorder.recordImage(image.length);
+    }
+
+    /**
+     * Takes an image received from the Zapic web page.
+     *
+     * @param id The image identifier.
+     * @return The image bytes or {@code null} if the image does not exist (or has already been
+     * taken).
+     */
+    @AnyThread
+    @Nullable
+    byte[] takeImage(@NonNull final String id) {
+        synchronized (mImages) {
+            return mImages.remove(id);
+        }
+    }
+
+    /**
+     * Runs the message consumer. This decodes the received messages (small messages inline, large
+     * messages on the worker pool) and publishes the decoded messages in the order they were
+     * received.
+     */
+    @WorkerThread
+    private void drain() {
+        do {
+            mSignaled.set(false);
+
+            DecodeTask decodeTask;
+            while ((decodeTask = mMessages.poll()) != null) {
+                mPending.offer(decodeTask);
+                if (decodeTask.mHeavy) {
+                    mWorkerExecutor.execute(decodeTask);
+                } else {
+                    decodeTask.run();
+                }
+            }
+
+            FutureTask<T> task;
+            while ((task = mPending.peek()) != null && task.isDone()) {
+                mPending.poll();
+
+                final T value;
+                try {
+                    value = task.get();
+                } catch (ExecutionException | InterruptedException e) {
+                    Log.e(TAG, "Failed to decode Zapic web page message", e);
+                    continue;
+                }
+
+                if (value != null) {
+                    mMessageHandler.publish(value);
+                }
+            }
+
+            mDraining.set(false);
+        } while ((!mMessages.isEmpty() || mSignaled.get()) && mDraining.compareAndSet(false, true));
+    }
+
+    /**
+     * Schedules the message consumer if it has not already been scheduled.
+     */
+    @AnyThread
+    private void scheduleDrain() {
+        if (mDraining.compareAndSet(false, true)) {
+            mConsumerExecutor.execute(mDrainRunnable);
+        }
+    }
+
+    /**
+     * Decodes and publishes Zapic web page messages.
+     *
+     * @param <T> The decoded message type.
+     */
+    interface MessageHandler<T> {
+        /**
+         * Decodes a Zapic web page message. This may be invoked concurrently on the worker pool.
+         *
+         * @param message      The message.
+         * @param receivedTime The time (in {@link System#nanoTime()} nanoseconds) the message was
+         *                     received.
+         * @return The decoded message or {@code null} if the message should be ignored.
+         */
+        @Nullable
+        @WorkerThread
+        T decode(@NonNull String message, long receivedTime);
+
+        /**
+         * Publishes a decoded Zapic web page message. This is invoked by the single message
+         * consumer in the order the messages were received.
+         *
+         * @param message The decoded message.
+         */
+        @WorkerThread
+        void publish(@NonNull T message);
+    }
+
+    /**
+     * A task that decodes a Zapic web page message and signals the message consumer.
+     */
+    private final class DecodeTask extends FutureTask<T> {
         /**
-         * The message.
+         * A value indicating whether the message should be decoded on the worker pool.
          */
-        @NonNull
-        private final String mMessage;
+        private final boolean mHeavy;
 
         /**
-         * Creates a new {@link DecodeAndProcessMessageRunnable} instance.
+         * Creates a new {@link DecodeTask} instance.
          *
          * @param message The message.
+         * @param heavy   A value indicating whether the message should be decoded on the worker
+         *                pool.
          */
         @AnyThread
-        private DecodeAndProcessMessageRunnable(@NonNull final String message) {
-            mMessage = message;
+        private DecodeTask(@NonNull final String message, final boolean heavy) {
+            super(new Callable<T>() {
+                /**
+                 * The time the message was received.
+                 */
+                private final long mReceivedTime = System.nanoTime();
+
+                @Override
+                @WorkerThread
+                public T call() {
+                    return mMessageHandler.decode(message, mReceivedTime);
+                }
+            });
+            mHeavy = heavy;
         }
 
         @Override
         @WorkerThread
-        public void run() {
-            mMessageCallback.onReceiveValue(mMessage);
+        protected void done() {
+            mSignaled.set(true);
+            scheduleDrain();
         }
     }
 }
@@ -1,17 +1,25 @@
 package com.zapic.sdk.android;
 
 import android.annotation.SuppressLint;
+import android.app.Activity;
+import android.app.Application;
 import android.content.ActivityNotFoundException;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Build;
+import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.support.annotation.AnyThread;
 import android.support.annotation.CheckResult;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
@@ -20,9 +28,11 @@
 import android.support.annotation.WorkerThread;
 import android.support.v4.content.FileProvider;
 import android.util.Base64;
+import android.util.Base64InputStream;
+import android.util.JsonReader;
+import android.util.JsonToken;
 import android.util.Log;
 import android.view.View;
-import android.webkit.MimeTypeMap;
 import android.webkit.RenderProcessGoneDetail;
 import android.webkit.SafeBrowsingResponse;
 import android.webkit.ValueCallback;
@@ -34,21 +44,21 @@
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -64,6 +74,24 @@
  * @since 1.2.0
  */
 final class WebViewManager {
+    /**
+     * The base delay (in milliseconds) before the {@link WebView} instance is recreated after
+     * repeated renderer crashes. This doubles after each consecutive crash.
+     */
+    private static final long CRASH_BACKOFF_BASE = 1000;
+
+    /**
+     * The maximum delay (in milliseconds) before the {@link WebView} instance is recreated after
+     * repeated renderer crashes.
+     */
+    private static final long CRASH_BACKOFF_MAX = 5 * 60 * 1000;
+
+    /**
+     * The time (in milliseconds) a recreated {@link WebView} instance must run without a renderer
+     * crash to reset the consecutive crash count.
+     */
+    private static final long CRASH_RESET_TIME = 60 * 1000;
+
     /**
      * Identifies the "APP_FAILED" action type.
      */
@@ -109,12 +137,41 @@ final class WebViewManager {
      */
     private static final int ACTION_TYPE_SHOW_SHARE_MENU = 1008;
 
+    /**
+     * The number of bytes used to identify the mime-type of a shared image.
+     */
+    private static final int SHARE_IMAGE_HEADER_SIZE = 12;
+
+    /**
+     * The supported mime-types of shared images.
+     */
+    @NonNull
+    private static final String[] SHARE_IMAGE_MIME_TYPES = {"image/jpeg", "image/png", "image/gif", "image/webp"};
+
     /**
      * The tag used to identify log messages.
      */
     @NonNull
     private static final String TAG = "WebViewManager";
 
+    /**
+     * The memory pressure tier in which the {@link WebView} instance is destroyed.
+     */
+    @NonNull
+    private static final String TIER_BACKGROUND = "BACKGROUND";
+
+    /**
+     * The memory pressure tier in which the {@link WebView} caches are cleared.
+     */
+    @NonNull
+    private static final String TIER_LOW = "LOW";
+
+    /**
+     * The origin of the Zapic web page.
+     */
+    @NonNull
+    private static final String ORIGIN = "https://app.zapic.net";
+
     /**
      * The URL of the Zapic web page with a trailing slash. This contains all lowercase characters
      * to facilitate case-insensitive comparisons (by forcing all lowercase characters in the other
@@ -135,18 +192,42 @@ final class WebViewManager {
     @NonNull
     private final Context mApplicationContext;
 
+    /**
+     * The {@link FrameScheduler} instance used to spread non-urgent messages across frames.
+     */
+    @NonNull
+    private final FrameScheduler mFrameScheduler;
+
     /**
      * The message handler used to invoke methods on the UI thread.
      */
     @NonNull
     private final Handler mHandler;
 
+    /**
+     * The {@link MetricsRecorder} instance.
+     */
+    @NonNull
+    private final MetricsRecorder mMetricsRecorder;
+
+    /**
+     * The task used to recreate the {@link WebView} instance after a renderer crash.
+     */
+    @NonNull
+    private final Runnable mRestartRunnable;
+
     /**
      * The {@link SessionManager} instance.
      */
     @NonNull
     private final SessionManager mSessionManager;
 
+    /**
+     * The {@link StartupTracer} instance.
+     */
+    @NonNull
+    private final StartupTracer mStartupTracer;
+
     /**
      * The {@link ViewManager} instance.
      */
@@ -157,7 +238,29 @@ final class WebViewManager {
      * The {@link WebViewJavascriptBridge} instance.
      */
     @NonNull
-    private final WebViewJavascriptBridge mWebViewJavascriptBridge;
+    private final WebViewJavascriptBridge<Message> mWebViewJavascriptBridge;
+
+    /**
+     * The number of consecutive renderer crashes.
+     */
+    private int mCrashCount;
+
+    /**
+     * The number of messages waiting in the {@link FrameScheduler} to be handled.
+     */
+    private int mDeferredMessageCount;
+
+    /**
+     * The time (in {@link SystemClock#uptimeMillis()} milliseconds) the {@link WebView} instance
+     * was last recreated after a renderer crash.
+     */
+    private long mRestartTime;
+
+    /**
+     * The time (in {@link System#nanoTime()} nanoseconds) the {@link WebView} instance started
+     * restoring after it was destroyed to free memory or {@code 0} if it is not restoring.
+     */
+    private long mRestoreStartTime;
 
     /**
      * A value indicating whether Safe Browsing has been started.
@@ -188,80 +291,123 @@ final class WebViewManager {
     @Nullable
     private WebView mWebView;
 
+    /**
+     * The dispatcher used to send messages to the Zapic web page or {@code null} if the Zapic web
+     * page has not started.
+     */
+    @Nullable
+    private WebViewDispatcher mWebViewDispatcher;
+
     /**
      * A value indicating whether the "APP_STARTED" action has been received.
      */
     private boolean mWebViewStarted;
 
+    /**
+     * A value indicating whether the {@link WebView} instance has been destroyed to free memory.
+     * The Zapic web page and queued events are kept to restore it quickly.
+     */
+    private boolean mWebViewSuspended;
+
     /**
      * Creates a new {@link WebViewManager} instance.
      *
      * @param context        Any context object (e.g. the global {@link android.app.Application} or
      *                       an {@link android.app.Activity}).
-     * @param sessionManager The {@link SessionManager} instance.
-     * @param viewManager    The {@link ViewManager} instance.
+     * @param sessionManager  The {@link SessionManager} instance.
+     * @param viewManager     The {@link ViewManager} instance.
+     * @param frameScheduler  The {@link FrameScheduler} instance.
+     * @param metricsRecorder The {@link MetricsRecorder} instance.
+     * @param startupTracer   The {@link StartupTracer} instance.
      */
     @MainThread
-    WebViewManager(@NonNull final Context context, @NonNull final SessionManager sessionManager, @NonNull final ViewManager viewManager) {
+    WebViewManager(@NonNull final Context context, @NonNull final SessionManager sessionManager, @NonNull final ViewManager viewManager, @NonNull final FrameScheduler frameScheduler, @NonNull final MetricsRecorder metricsRecorder, @NonNull final StartupTracer startupTracer) {
         mApplicationContext = context.getApplicationContext();
         mHandler = new Handler(mApplicationContext.getMainLooper(), new Handler.Callback() {
             @Override
-            @SuppressWarnings("unchecked")
             public boolean handleMessage(@Nullable final Message msg) {
                 if (msg == null) {
                     return false;
                 }
 
+                final boolean deferred;
                 switch (msg.what) {
-                    case ACTION_TYPE_APP_FAILED:
-                        onAppFailedHandled();
-                        break;
-                    case ACTION_TYPE_APP_STARTED:
-                        onAppStartedHandled();
-                        break;
-                    case ACTION_TYPE_CLOSE_PAGE_REQUESTED:
-                        onClosePageRequestedHandled();
-                        break;
                     case ACTION_TYPE_LOGGED_IN:
-                        onLoggedInHandled((Map<String, Object>) msg.obj);
-                        break;
                     case ACTION_TYPE_LOGGED_OUT:
-                        onLoggedOutHandled();
-                        break;
-                    case ACTION_TYPE_PAGE_READY:
-                        onPageReadyHandled();
-                        break;
                     case ACTION_TYPE_SHOW_BANNER:
-                        onShowBannerHandled((Map<String, Object>) msg.obj);
-                        break;
-                    case ACTION_TYPE_SHOW_PAGE:
-                        onShowPageHandled();
+                        // These do not block the player and are spread across frames.
+                        deferred = true;
                         break;
-                    case ACTION_TYPE_SHOW_SHARE_MENU:
-                        onShowShareMenuHandled((Map<String, Object>) msg.obj);
                     default:
+                        // Other messages are deferred behind waiting messages to keep the
+                        // Zapic web page's order (e.g. LOGGED_IN before SHOW_PAGE).
+                        deferred = mDeferredMessageCount > 0;
                         break;
                 }
 
+                if (!deferred) {
+                    onMessageHandled(msg, msg.getWhen());
+                    return true;
+                }
+
+                // The message is copied because it is recycled when this returns.
+                final Message deferredMessage = Message.obtain(msg);
+                final long when = msg.getWhen();
+                mDeferredMessageCount++;
+                mFrameScheduler.post(new Runnable() {
+                    @MainThread
+                    @Override
+                    public void run() {
+                        mDeferredMessageCount--;
+                        onMessageHandled(deferredMessage, when);
+                        deferredMessage.recycle();
+                    }
+                });
                 return true;
             }
         });
+        mCrashCount = 0;
+        mDeferredMessageCount = 0;
+        mFrameScheduler = frameScheduler;
+        mMetricsRecorder = metricsRecorder;
+        mRestartRunnable = new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                restartWebView();
+            }
+        };
+        mRestartTime = 0;
+        mRestoreStartTime = 0;
         mSafeBrowsingStarted = null;
         mSessionManager = sessionManager;
+        mStartupTracer = startupTracer;
         mViewManager = viewManager;
         mWebPage = null;
         mWebPageTask = null;
         mWebView = null;
-        mWebViewJavascriptBridge = new WebViewJavascriptBridge(new ValueCallback<String>() {
+        mWebViewDispatcher = null;
+        mWebViewJavascriptBridge = new WebViewJavascriptBridge<>(new WebViewJavascriptBridge.MessageHandler<Message>() {
+            @Nullable
             @Override
             @WorkerThread
-            public void onReceiveValue(@Nullable final String value) {
-                if (value != null) {
-                    onDispatch(value);
-                }
+            public Message decode(@NonNull final String message, final long receivedTime) {
+                final long startTime = System.nanoTime();
+                final Message decodedMessage = onDispatch(message);
+                final long endTime = System.nanoTime();
+                final String type = decodedMessage == null ? MetricsRecorder.TYPE_INVALID : getActionType(decodedMessage.what);
+                mMetricsRecorder.recordDecoded(type, 2L * message.length(), startTime - receivedTime, endTime - startTime);
+                return decodedMessage;
             }
-        });
+
+            @Override
+            @WorkerThread
+            public void publish(@NonNull final Message message) {
+                message.sendToTarget();
+            }
+        }, metricsRecorder);
         mWebViewStarted = false;
+        mWebViewSuspended = false;
     }
 
 //    @MainThread
@@ -275,6 +421,10 @@ public void onReceiveValue(@Nullable final String value) {
 
     /**
      * Decodes a Base64-encoded image and saves it to the share folder.
+     * <p>
+     * The image is decoded while it is written, so the decoded image is never held in memory. The
+     * file is named by the hash of the encoded image; if the same image has already been shared,
+     * the existing file is reused without decoding the image again.
      *
      * @param encodedImage The Base64-encoded image.
      * @return The image URI and mime-type.
@@ -282,53 +432,216 @@ public void onReceiveValue(@Nullable final String value) {
     @NonNull
     @WorkerThread
     private SharedImage decodeImageAndSaveToShare(@NonNull final String encodedImage) throws IllegalArgumentException, IOException {
-        byte[] imageBytes = Base64.decode(encodedImage, Base64.DEFAULT);
+        final String hash = HashUtilities.sha1(new AsciiInputStream(encodedImage));
+        return saveImageToShare(hash, new Base64InputStream(new AsciiInputStream(encodedImage), Base64.DEFAULT));
+    }
 
-        // Get the mime type without allocating memory for the pixels.
-        final BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inJustDecodeBounds = true;
-        BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length, options);
-        final String imageMimeType = options.outMimeType;
-        if (imageMimeType == null) {
-            throw new IllegalArgumentException("The image type is not supported");
-        }
+    /**
+     * Saves an image to the share folder.
+     * <p>
+     * The file is named by the hash of the image; if the same image has already been shared, the
+     * existing file is reused without writing the image again.
+     *
+     * @param imageBytes The image bytes.
+     * @return The image URI and mime-type.
+     */
+    @NonNull
+    @WorkerThread
+    private SharedImage saveImageToShare(@NonNull final byte[] imageBytes) throws IllegalArgumentException, IOException {
+        return saveImageToShare(HashUtilities.sha1(imageBytes), new ByteArrayInputStream(imageBytes));
+    }
 
+    /**
+     * Saves an image to the share folder.
+     * <p>
+     * The mime-type is identified from the first bytes of the image. The image is written to a
+     * temporary file, which is then renamed, so a partially written image is never shared.
+     *
+     * @param hash        The hash used to name the file or {@code null} if a hash is not
+     *                    available.
+     * @param imageStream The image stream. This is not closed.
+     * @return The image URI and mime-type.
+     */
+    @NonNull
+    @WorkerThread
+    private SharedImage saveImageToShare(@Nullable final String hash, @NonNull final InputStream imageStream) throws IllegalArgumentException, IOException {
         final File imageDirectory = new File(mApplicationContext.getCacheDir(), "Zapic" + File.separator + "Share");
         if (!imageDirectory.isDirectory() && !imageDirectory.mkdirs()) {
             throw new IllegalStateException("The image share folder does not exist and cannot be created");
         }
 
-        String imageFileExtension = MimeTypeMap.getSingleton().getExtensionFromMimeType(imageMimeType);
-        if (imageFileExtension == null) {
-            throw new IllegalArgumentException("The image type is not supported");
+        final String imageFileName = hash != null ? hash : UUID.randomUUID().toString();
+        for (final String imageMimeType : SHARE_IMAGE_MIME_TYPES) {
+            final File imageFile = new File(imageDirectory, imageFileName + "." + getImageFileExtension(imageMimeType));
+            if (imageFile.isFile()) {
+                return createSharedImage(imageMimeType, imageFile);
+            }
         }
 
-        final File imageFile = new File(imageDirectory, "IMG_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date()) + "." + imageFileExtension);
-        for (int i = 0; ; i++) {
+        final File tempFile = File.createTempFile("IMG_", ".tmp", imageDirectory);
+        try {
+            final String imageMimeType;
+            final OutputStream outputStream = new FileOutputStream(tempFile);
             try {
-                BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(imageFile));
-                outputStream.write(imageBytes);
-                outputStream.flush();
-                outputStream.close();
+                final byte[] buffer = new byte[8192];
+                int length = 0;
+                while (length < SHARE_IMAGE_HEADER_SIZE) {
+                    final int count = imageStream.read(buffer, length, buffer.length - length);
+                    if (count == -1) {
+                        break;
+                    }
+
+                    length += count;
+                }
+
+                imageMimeType = getImageMimeType(buffer, length);
+                if (imageMimeType == null) {
+                    throw new IllegalArgumentException("The image type is not supported");
+                }
 
-                final String packageName = mApplicationContext.getPackageName();
-                return new SharedImage(imageMimeType, FileProvider.getUriForFile(mApplicationContext, packageName + ".zapic", imageFile));
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to write image to the share folder", e);
-                if (i >= 3) {
-                    throw e;
+                while (length != -1) {
+                    outputStream.write(buffer, 0, length);
+                    length = imageStream.read(buffer);
                 }
+            } finally {
+                outputStream.close();
+            }
+
+            final File imageFile = new File(imageDirectory, imageFileName + "." + getImageFileExtension(imageMimeType));
+            if (!tempFile.renameTo(imageFile) && !imageFile.isFile()) {
+                throw new IOException("Failed to move the image to the share folder");
             }
+
+            return createSharedImage(imageMimeType, imageFile);
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                Log.e(TAG, "Failed to delete the temporary image");
+            }
+        }
+    }
+
+    /**
+     * Creates the shareable URI of an image in the share folder.
+     *
+     * @param imageMimeType The image mime-type.
+     * @param imageFile     The image file.
+     * @return The image URI and mime-type.
+     */
+    @NonNull
+    @WorkerThread
+    private SharedImage createSharedImage(@NonNull final String imageMimeType, @NonNull final File imageFile) {
+        final String packageName = mApplicationContext.getPackageName();
+        return new SharedImage(imageMimeType, FileProvider.getUriForFile(mApplicationContext, packageName + ".zapic", imageFile));
+    }
+
+    /**
+     * Gets the file extension of the specified image mime-type.
+     *
+     * @param imageMimeType One of {@link #SHARE_IMAGE_MIME_TYPES}.
+     * @return The file extension.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static String getImageFileExtension(@NonNull final String imageMimeType) {
+        switch (imageMimeType) {
+            case "image/gif":
+                return "gif";
+            case "image/jpeg":
+                return "jpg";
+            case "image/png":
+                return "png";
+            default:
+                return "webp";
+        }
+    }
+
+    /**
+     * Identifies the mime-type of an image from its first bytes.
+     *
+     * @param header The first bytes of the image.
+     * @param length The number of bytes in {@code header}.
+     * @return One of {@link #SHARE_IMAGE_MIME_TYPES} or {@code null} if the image type is not
+     * supported.
+     */
+    @AnyThread
+    @CheckResult
+    @Nullable
+    private static String getImageMimeType(@NonNull final byte[] header, final int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G' && header[4] == '\r' && header[5] == '\n' && header[6] == 0x1A && header[7] == '\n') {
+            return "image/png";
+        }
+
+        if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8' && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "image/gif";
+        }
+
+        if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F' && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the action type of the specified UI thread message.
+     *
+     * @param what The UI thread message code.
+     * @return The action type.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    private static String getActionType(final int what) {
+        switch (what) {
+            case ACTION_TYPE_APP_FAILED:
+                return "APP_FAILED";
+            case ACTION_TYPE_APP_STARTED:
+                return "APP_STARTED";
+            case ACTION_TYPE_CLOSE_PAGE_REQUESTED:
+                return "CLOSE_PAGE_REQUESTED";
+            case ACTION_TYPE_LOGGED_IN:
+                return "LOGGED_IN";
+            case ACTION_TYPE_LOGGED_OUT:
+                return "LOGGED_OUT";
+            case ACTION_TYPE_PAGE_READY:
+                return "PAGE_READY";
+            case ACTION_TYPE_SHOW_BANNER:
+                return "SHOW_BANNER";
+            case ACTION_TYPE_SHOW_PAGE:
+                return "SHOW_PAGE";
+            case ACTION_TYPE_SHOW_SHARE_MENU:
+                return "SHOW_SHARE_MENU";
+            default:
+                return MetricsRecorder.TYPE_INVALID;
+        }
+    }
+
+    /**
+     * Closes {@link #mWebViewDispatcher}, if necessary.
+     */
+    @MainThread
+    private void closeWebViewDispatcher() {
+        if (mWebViewDispatcher != null) {
+            mWebViewDispatcher.close();
+            mWebViewDispatcher = null;
         }
     }
 
     /**
      * Handles the "APP_FAILED" action. This notifies the various view components that the Zapic
      * web page has failed to start.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onAppFailedDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_APP_FAILED).sendToTarget();
+    private Message onAppFailedDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_APP_FAILED);
     }
 
     /**
@@ -336,6 +649,8 @@ private void onAppFailedDispatched() {
      */
     @MainThread
     private void onAppFailedHandled() {
+        closeWebViewDispatcher();
+        mRestoreStartTime = 0;
         mWebViewStarted = false;
         if (mWebView != null) {
             mWebView.stopLoading();
@@ -348,10 +663,13 @@ private void onAppFailedHandled() {
     /**
      * Handles the "APP_STARTED" action. This notifies the various view components that the Zapic
      * web page has started.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onAppStartedDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_APP_STARTED).sendToTarget();
+    private Message onAppStartedDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_APP_STARTED);
     }
 
     /**
@@ -359,20 +677,32 @@ private void onAppStartedDispatched() {
      */
     @MainThread
     private void onAppStartedHandled() {
+        if (mRestoreStartTime != 0) {
+            mMetricsRecorder.recordRecovery(TIER_BACKGROUND, System.nanoTime() - mRestoreStartTime);
+            mRestoreStartTime = 0;
+        }
+
+        mStartupTracer.markEnd(StartupTracer.PHASE_APP_STARTED);
+        mStartupTracer.markStart(StartupTracer.PHASE_PAGE_READY);
         mWebViewStarted = true;
         if (mWebView != null) {
-            mSessionManager.onWebViewLoaded(mWebView);
-            mViewManager.onWebViewLoaded(mWebView);
+            closeWebViewDispatcher();
+            mWebViewDispatcher = new WebViewDispatcher(mWebView, Uri.parse(ORIGIN), mMetricsRecorder);
+            mSessionManager.onWebViewLoaded(mWebViewDispatcher);
+            mViewManager.onWebViewLoaded(mWebView, mWebViewDispatcher);
         }
     }
 
     /**
      * Handles the "CLOSE_PAGE_REQUESTED" action. This notifies the various view components that the
      * Zapic web page should be hidden.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onClosePageRequestedDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_CLOSE_PAGE_REQUESTED).sendToTarget();
+    private Message onClosePageRequestedDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_CLOSE_PAGE_REQUESTED);
     }
 
     /**
@@ -384,99 +714,169 @@ private void onClosePageRequestedHandled() {
     }
 
     /**
-     * Handles Zapic web page messages.
+     * Decodes Zapic web page messages.
+     * <p>
+     * This streams the message and reads the "type" property first. The "payload" property is only
+     * read by the decoder specific to the message type, which skips unused (and potentially large)
+     * properties without materializing them.
      *
      * @param message The Zapic web page message.
+     * @return The UI thread message or {@code null} if the Zapic web page message is invalid.
      */
+    @Nullable
     @WorkerThread
-    private void onDispatch(@NonNull final String message) {
-        final JSONObject action;
+    private Message onDispatch(@NonNull final String message) {
         try {
-            action = new JSONObject(message);
-        } catch (JSONException e) {
+            return onDispatch(message, null);
+        } catch (IOException | IllegalStateException e) {
             Log.e(TAG, "Failed to parse Zapic web page message", e);
-            return;
+            return null;
         }
+    }
 
-        final String type;
+    /**
+     * Decodes Zapic web page messages.
+     * <p>
+     * If the "payload" property precedes the "type" property, the payload is skipped and the
+     * message is read a second time with the known type.
+     *
+     * @param message   The Zapic web page message.
+     * @param knownType The Zapic web page message type or {@code null} if it is not known yet.
+     * @return The UI thread message or {@code null} if the Zapic web page message is invalid.
+     * @throws IOException If the Zapic web page message is not valid JSON.
+     */
+    @Nullable
+    @WorkerThread
+    private Message onDispatch(@NonNull final String message, @Nullable final String knownType) throws IOException {
+        String type = knownType;
+        boolean payloadSkipped = false;
+        final JsonReader reader = new JsonReader(new StringReader(message));
         try {
-            type = action.getString("type");
-        } catch (JSONException e) {
-            Log.e(TAG, "The Zapic web page message type is missing", e);
-            return;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("type".equals(name) && knownType == null) {
+                    type = reader.nextString();
+                } else if ("payload".equals(name) && type != null) {
+                    return decodePayload(type, reader);
+                } else if ("payload".equals(name)) {
+                    payloadSkipped = true;
+                    reader.skipValue();
+                } else {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+
+        if (type == null) {
+            Log.e(TAG, "The Zapic web page message type is missing");
+            return null;
+        }
+
+        if (payloadSkipped) {
+            return onDispatch(message, type);
         }
 
+        return decodePayload(type, null);
+    }
+
+    /**
+     * Decodes the payload of Zapic web page messages.
+     *
+     * @param type    The Zapic web page message type.
+     * @param payload The reader positioned at the "payload" property value or {@code null} if the
+     *                Zapic web page message does not have a payload.
+     * @return The UI thread message or {@code null} if the Zapic web page message is invalid.
+     * @throws IOException If the Zapic web page message is not valid JSON.
+     */
+    @Nullable
+    @WorkerThread
+    private Message decodePayload(@NonNull final String type, @Nullable final JsonReader payload) throws IOException {
         switch (type) {
             case "APP_FAILED":
-                onAppFailedDispatched();
-                break;
+                return onAppFailedDispatched();
             case "APP_STARTED":
-                onAppStartedDispatched();
-                break;
+                return onAppStartedDispatched();
             case "CLOSE_PAGE_REQUESTED":
-                onClosePageRequestedDispatched();
-                break;
+                return onClosePageRequestedDispatched();
             case "LOGGED_IN":
-                onLoggedInDispatched(action);
-                break;
+                return onLoggedInDispatched(payload);
             case "LOGGED_OUT":
-                onLoggedOutDispatched();
-                break;
+                return onLoggedOutDispatched();
             case "PAGE_READY":
-                onPageReadyDispatched();
-                break;
+                return onPageReadyDispatched();
             case "SHOW_BANNER":
-                onShowBannerDispatched(action);
-                break;
+                return onShowBannerDispatched(payload);
             case "SHOW_PAGE":
-                onShowPageDispatched();
-                break;
+                return onShowPageDispatched();
             case "SHOW_SHARE_MENU":
-                onShowShareMenuDispatched(action);
-                break;
+                return onShowShareMenuDispatched(payload);
             default:
                 Log.e(TAG, String.format("The Zapic web page message type is not supported: %s", type));
-                break;
+                return null;
         }
     }
 
     /**
      * Handles the "LOGGED_IN" action. This notifies the session manager that the current player has
      * changed.
+     *
+     * @return The UI thread message or {@code null} if the message is invalid.
      */
+    @Nullable
     @WorkerThread
-    private void onLoggedInDispatched(@NonNull final JSONObject action) {
-        String notificationToken;
-        String userId;
-        try {
-            final JSONObject payload = action.getJSONObject("payload");
-            notificationToken = payload.getString("notificationToken");
-            userId = payload.getString("userId");
-        } catch (JSONException e) {
-            Log.e(TAG, "The Zapic web page LOGGED_IN message is invalid", e);
-            return;
+    private Message onLoggedInDispatched(@Nullable final JsonReader payload) throws IOException {
+        String notificationToken = null;
+        String userId = null;
+        if (payload != null) {
+            payload.beginObject();
+            while (payload.hasNext()) {
+                switch (payload.nextName()) {
+                    case "notificationToken":
+                        notificationToken = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "userId":
+                        userId = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    default:
+                        payload.skipValue();
+                        break;
+                }
+            }
+
+            payload.endObject();
+        }
+
+        if (notificationToken == null || userId == null) {
+            Log.e(TAG, "The Zapic web page LOGGED_IN message is invalid");
+            return null;
         }
 
-        Map<String, Object> args = new HashMap<>();
-        args.put("player", new ZapicPlayer(userId, notificationToken));
-        mHandler.obtainMessage(ACTION_TYPE_LOGGED_IN, args).sendToTarget();
+        return mHandler.obtainMessage(ACTION_TYPE_LOGGED_IN, new ZapicPlayer(userId, notificationToken));
     }
 
     /**
-     * @see #onLoggedInDispatched(JSONObject)
+     * @see #onLoggedInDispatched(JsonReader)
      */
     @MainThread
-    private void onLoggedInHandled(Map<String, Object> args) {
-        mSessionManager.onLogin((ZapicPlayer) args.get("player"));
+    private void onLoggedInHandled(@NonNull final ZapicPlayer player) {
+        mSessionManager.onLogin(player);
     }
 
     /**
      * Handles the "LOGGED_OUT" action. This notifies the session manager that the current player
      * has changed.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onLoggedOutDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_LOGGED_OUT).sendToTarget();
+    private Message onLoggedOutDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_LOGGED_OUT);
     }
 
     /**
@@ -485,15 +885,64 @@ private void onLoggedOutDispatched() {
     @MainThread
     private void onLoggedOutHandled() {
         mSessionManager.onLogout();
+        mViewManager.clearSnapshot();
     }
 
     /**
      * Handles the "PAGE_READY" action. This notifies the various view components that the Zapic web
      * page may be shown.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onPageReadyDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_PAGE_READY).sendToTarget();
+    private Message onPageReadyDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_PAGE_READY);
+    }
+
+    /**
+     * Handles a UI thread message.
+     *
+     * @param msg  The UI thread message.
+     * @param when The time (in milliseconds since boot) the message was due to be handled.
+     */
+    @MainThread
+    private void onMessageHandled(@NonNull final Message msg, final long when) {
+        final long queueTime = TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - when);
+        final long startTime = System.nanoTime();
+        switch (msg.what) {
+            case ACTION_TYPE_APP_FAILED:
+                onAppFailedHandled();
+                break;
+            case ACTION_TYPE_APP_STARTED:
+                onAppStartedHandled();
+                break;
+            case ACTION_TYPE_CLOSE_PAGE_REQUESTED:
+                onClosePageRequestedHandled();
+                break;
+            case ACTION_TYPE_LOGGED_IN:
+                onLoggedInHandled((ZapicPlayer) msg.obj);
+                break;
+            case ACTION_TYPE_LOGGED_OUT:
+                onLoggedOutHandled();
+                break;
+            case ACTION_TYPE_PAGE_READY:
+                onPageReadyHandled();
+                break;
+            case ACTION_TYPE_SHOW_BANNER:
+                onShowBannerHandled((Notification) msg.obj);
+                break;
+            case ACTION_TYPE_SHOW_PAGE:
+                onShowPageHandled();
+                break;
+            case ACTION_TYPE_SHOW_SHARE_MENU:
+                onShowShareMenuHandled((Intent) msg.obj, msg.arg1 != 0);
+                break;
+            default:
+                break;
+        }
+
+        mMetricsRecorder.recordHandled(getActionType(msg.what), queueTime, System.nanoTime() - startTime);
     }
 
     /**
@@ -502,72 +951,106 @@ private void onPageReadyDispatched() {
     @MainThread
     private void onPageReadyHandled() {
         mViewManager.onWebViewReady();
+        mStartupTracer.complete();
     }
 
     /**
      * Handles the "SHOW_BANNER" action. This shows a notification message on the topmost activity.
+     *
+     * @return The UI thread message or {@code null} if the message is invalid.
      */
+    @Nullable
     @WorkerThread
-    private void onShowBannerDispatched(@NonNull final JSONObject action) {
-        String title;
-        String subtitle;
-        String encodedIcon;
-        JSONObject metadata;
-        try {
-            final JSONObject payload = action.getJSONObject("payload");
-            title = payload.getString("title");
-            subtitle = payload.optString("subtitle");
-            encodedIcon = payload.optString("icon");
-            metadata = payload.optJSONObject("metadata");
-        } catch (JSONException e) {
-            Log.e(TAG, "The Zapic web page SHOW_BANNER message is invalid", e);
-            return;
-        }
+    private Message onShowBannerDispatched(@Nullable final JsonReader payload) throws IOException {
+        String title = null;
+        String subtitle = null;
+        String group = null;
+        byte[] iconBytes = null;
+        JSONObject metadata = null;
+        int priority = 0;
+        if (payload != null) {
+            payload.beginObject();
+            while (payload.hasNext()) {
+                switch (payload.nextName()) {
+                    case "title":
+                        title = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "subtitle":
+                        subtitle = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "icon":
+                        // This decodes the icon immediately so the encoded string may be collected.
+                        final String encodedIcon = JsonReaderUtilities.nextStringOrNull(payload);
+                        if (encodedIcon != null && encodedIcon.length() != 0) {
+                            try {
+                                iconBytes = Base64.decode(encodedIcon, Base64.DEFAULT);
+                            } catch (IllegalArgumentException e) {
+                                Log.e(TAG, "The Zapic web page SHOW_BANNER message icon is invalid", e);
+                            }
+                        }
 
-        if (subtitle.equals("")) {
-            subtitle = null;
-        }
+                        break;
+                    case "iconId":
+                        // This takes the icon received from the binary side channel.
+                        final String iconId = JsonReaderUtilities.nextStringOrNull(payload);
+                        if (iconId != null) {
+                            iconBytes = mWebViewJavascriptBridge.takeImage(iconId);
+                        }
 
-        Bitmap icon;
-        if (encodedIcon.equals("")) {
-            icon = null;
-        } else {
-            try {
-                byte[] iconBytes = Base64.decode(encodedIcon, Base64.DEFAULT);
-                icon = BitmapFactory.decodeByteArray(iconBytes, 0, iconBytes.length);
-            } catch (IllegalArgumentException e) {
-                Log.e(TAG, "The Zapic web page SHOW_BANNER message icon is invalid", e);
-                icon = null;
-            }
+                        break;
+                    case "metadata":
+                        metadata = JsonReaderUtilities.nextJSONObjectOrNull(payload);
+                        break;
+                    case "group":
+                        group = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "priority":
+                        if (payload.peek() == JsonToken.NUMBER) {
+                            priority = (int) payload.nextDouble();
+                        } else {
+                            payload.skipValue();
+                        }
 
-            if (icon != null) {
-                final int size = mApplicationContext.getResources().getDimensionPixelSize(R.dimen.alerter_alert_icn_size);
-                icon = Bitmap.createScaledBitmap(icon, size, size, false);
+                        break;
+                    default:
+                        payload.skipValue();
+                        break;
+                }
             }
+
+            payload.endObject();
+        }
+
+        if (title == null) {
+            Log.e(TAG, "The Zapic web page SHOW_BANNER message is invalid");
+            return null;
         }
 
-        Map<String, Object> args = new HashMap<>();
-        args.put("title", title);
-        args.put("subtitle", subtitle);
-        args.put("icon", icon);
-        args.put("metadata", metadata);
-        mHandler.obtainMessage(ACTION_TYPE_SHOW_BANNER, args).sendToTarget();
+        if (subtitle != null && subtitle.length() == 0) {
+            subtitle = null;
+        }
+
+        // The icon is decoded when the notification message is shown.
+        return mHandler.obtainMessage(ACTION_TYPE_SHOW_BANNER, new Notification(title, subtitle, iconBytes, metadata, group, priority));
     }
 
     /**
-     * @see #onShowBannerDispatched(JSONObject)
+     * @see #onShowBannerDispatched(JsonReader)
      */
     @MainThread
-    private void onShowBannerHandled(Map<String, Object> args) {
-        mViewManager.showNotification(new Notification((String) args.get("title"), (String) args.get("subtitle"), (Bitmap) args.get("icon"), (JSONObject) args.get("metadata")));
+    private void onShowBannerHandled(@NonNull final Notification notification) {
+        mViewManager.showNotification(notification);
     }
 
     /**
      * Handles the "SHOW_PAGE" action. This shows a notification message on the topmost activity.
+     *
+     * @return The UI thread message.
      */
+    @NonNull
     @WorkerThread
-    private void onShowPageDispatched() {
-        mHandler.obtainMessage(ACTION_TYPE_SHOW_PAGE).sendToTarget();
+    private Message onShowPageDispatched() {
+        return mHandler.obtainMessage(ACTION_TYPE_SHOW_PAGE);
     }
 
     /**
@@ -580,26 +1063,67 @@ private void onShowPageHandled() {
 
     /**
      * Handles the "SHOW_SHARE_MENU" action. This shows an app chooser to share content.
+     *
+     * @return The UI thread message or {@code null} if the message is invalid.
      */
+    @Nullable
     @WorkerThread
-    private void onShowShareMenuDispatched(@NonNull final JSONObject action) {
-        final JSONObject payload;
-        final String target;
-        try {
-            payload = action.getJSONObject("payload");
-            target = payload.optString("target", "sheet");
-        } catch (JSONException e) {
-            Log.e(TAG, "The Zapic web page SHOW_SHARE_MENU message is invalid", e);
-            return;
+    private Message onShowShareMenuDispatched(@Nullable final JsonReader payload) throws IOException {
+        String target = null;
+        String subject = null;
+        String body = null;
+        String text = null;
+        String url = null;
+        String encodedImage = null;
+        byte[] imageBytes = null;
+        if (payload != null) {
+            payload.beginObject();
+            while (payload.hasNext()) {
+                switch (payload.nextName()) {
+                    case "target":
+                        target = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "subject":
+                        subject = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "body":
+                        body = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "text":
+                        text = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "url":
+                        url = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "image":
+                        encodedImage = JsonReaderUtilities.nextStringOrNull(payload);
+                        break;
+                    case "imageId":
+                        final String imageId = JsonReaderUtilities.nextStringOrNull(payload);
+                        if (imageId != null) {
+                            imageBytes = mWebViewJavascriptBridge.takeImage(imageId);
+                        }
+
+                        break;
+                    default:
+                        payload.skipValue();
+                        break;
+                }
+            }
+
+            payload.endObject();
+        } else {
+            Log.e(TAG, "The Zapic web page SHOW_SHARE_MENU message is invalid");
+            return null;
+        }
+
+        if (target == null) {
+            target = "sheet";
         }
 
         boolean showChooser = false;
         Intent intent;
         if (target.equalsIgnoreCase("email")) {
-            final String subject = payload.optString("subject");
-            final String body = payload.optString("body");
-            final String url = payload.optString("url");
-
             intent = new Intent(Intent.ACTION_SENDTO);
             intent.setData(Uri.parse("mailto:"));
             intent.setType("text/plain");
@@ -618,19 +1142,14 @@ private void onShowShareMenuDispatched(@NonNull final JSONObject action) {
                 intent.putExtra(Intent.EXTRA_TEXT, url);
             }
         } else if (target.equalsIgnoreCase("sms")) {
-            final String subject = payload.optString("subject");
-            final String text = payload.optString("text");
-            final String url = payload.optString("url");
-            final String encodedImage = payload.optString("image");
-
             intent = new Intent(Intent.ACTION_SENDTO);
-            if (encodedImage != null) {
+            if (imageBytes != null || (encodedImage != null && encodedImage.length() != 0)) {
                 final SharedImage image;
                 try {
-                    image = decodeImageAndSaveToShare(encodedImage);
+                    image = imageBytes != null ? saveImageToShare(imageBytes) : decodeImageAndSaveToShare(encodedImage);
                 } catch (IllegalArgumentException | IOException e) {
                     Log.e(TAG, "The Zapic web page SHOW_SHARE_MENU message is invalid", e);
-                    return;
+                    return null;
                 }
 
                 intent.setData(Uri.parse("mmsto:"));
@@ -657,19 +1176,14 @@ private void onShowShareMenuDispatched(@NonNull final JSONObject action) {
             }
         } else {
             showChooser = true;
-
-            final String text = payload.optString("text");
-            final String url = payload.optString("url");
-            final String encodedImage = payload.optString("image");
-
             intent = new Intent(Intent.ACTION_SEND);
-            if (encodedImage != null && encodedImage.length() != 0) {
+            if (imageBytes != null || (encodedImage != null && encodedImage.length() != 0)) {
                 final SharedImage image;
                 try {
-                    image = decodeImageAndSaveToShare(encodedImage);
+                    image = imageBytes != null ? saveImageToShare(imageBytes) : decodeImageAndSaveToShare(encodedImage);
                 } catch (IllegalArgumentException | IOException e) {
                     Log.e(TAG, "The Zapic web page SHOW_SHARE_MENU message is invalid", e);
-                    return;
+                    return null;
                 }
 
                 intent.setType(image.getImageMimeType());
@@ -690,21 +1204,18 @@ private void onShowShareMenuDispatched(@NonNull final JSONObject action) {
             }
         }
 
-        Map<String, Object> args = new HashMap<>();
-        args.put("intent", intent);
-        args.put("showChooser", showChooser);
-        mHandler.obtainMessage(ACTION_TYPE_SHOW_SHARE_MENU, args).sendToTarget();
+        return mHandler.obtainMessage(ACTION_TYPE_SHOW_SHARE_MENU, showChooser ? 1 : 0, 0, intent);
     }
 
     /**
-     * @see #onShowShareMenuDispatched(JSONObject)
+     * @see #onShowShareMenuDispatched(JsonReader)
      */
     @MainThread
-    private void onShowShareMenuHandled(@NonNull final Map<String, Object> args) {
-        if ((boolean) args.get("showChooser")) {
-            mViewManager.showShareChooser((Intent) args.get("intent"));
+    private void onShowShareMenuHandled(@NonNull final Intent intent, final boolean showChooser) {
+        if (showChooser) {
+            mViewManager.showShareChooser(intent);
         } else {
-            mViewManager.showShare((Intent) args.get("intent"));
+            mViewManager.showShare(intent);
         }
     }
 
@@ -730,6 +1241,21 @@ void retry() {
      */
     @MainThread
     void start() {
+        final ProcessCallbacks processCallbacks = new ProcessCallbacks();
+        mApplicationContext.registerComponentCallbacks(processCallbacks);
+        if (mApplicationContext instanceof Application) {
+            ((Application) mApplicationContext).registerActivityLifecycleCallbacks(processCallbacks);
+        }
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @MainThread
+            @Override
+            public boolean queueIdle() {
+                createWebView();
+                return false;
+            }
+        });
+
         startDownload();
         startSafeBrowsing();
     }
@@ -770,7 +1296,8 @@ public void onReceiveValue(@Nullable final Integer value) {
                                     mViewManager.showRetryPage();
                                 }
                             }
-                        }).execute();
+                        },
+                        mStartupTracer).execute();
             }
         } else {
             startWebView();
@@ -784,6 +1311,7 @@ public void onReceiveValue(@Nullable final Integer value) {
     @MainThread
     private void startSafeBrowsing() {
         if (mSafeBrowsingStarted == null) {
+            mStartupTracer.markStart(StartupTracer.PHASE_START_SAFE_BROWSING);
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
                 WebView.startSafeBrowsing(mApplicationContext, new ValueCallback<Boolean>() {
                     @MainThread
@@ -797,16 +1325,19 @@ public void onReceiveValue(@Nullable final Boolean value) {
                             mSafeBrowsingStarted = true;
                         }
 
+                        mStartupTracer.markEnd(StartupTracer.PHASE_START_SAFE_BROWSING);
                         startWebView();
                     }
                 });
             } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
                 Log.i(TAG, "Safe Browsing is assumed to be supported");
                 mSafeBrowsingStarted = true;
+                mStartupTracer.markEnd(StartupTracer.PHASE_START_SAFE_BROWSING);
                 startWebView();
             } else {
                 Log.i(TAG, "Safe Browsing is not supported");
                 mSafeBrowsingStarted = false;
+                mStartupTracer.markEnd(StartupTracer.PHASE_START_SAFE_BROWSING);
                 startWebView();
             }
         } else {
@@ -815,63 +1346,268 @@ public void onReceiveValue(@Nullable final Boolean value) {
     }
 
     /**
-     * If necessary, creates {@link #mWebView} and starts the Zapic web page.
+     * If necessary, creates and configures {@link #mWebView}. This does not load the Zapic web
+     * page.
+     * <p>
+     * The first {@link WebView} instance in the process loads the WebView implementation, which is
+     * costly. This is called on the first idle of the UI thread after {@link #start()} to move that
+     * cost off the critical path (and in parallel with downloading the Zapic web page).
      */
     @MainThread
     @SuppressLint("SetJavaScriptEnabled")
     @SuppressWarnings("deprecation")
+    private void createWebView() {
+        if (mWebView != null) {
+            return;
+        }
+
+        mStartupTracer.beginSection(StartupTracer.PHASE_CREATE_WEB_VIEW);
+        mWebView = new WebView(new MutableContextWrapper(mApplicationContext));
+        mWebView.setVisibility(View.GONE);
+        mWebView.addJavascriptInterface(mWebViewJavascriptBridge, VARIABLE_NAME);
+        mWebView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mWebView.setOverScrollMode(View.OVER_SCROLL_NEVER);
+        mWebView.setWebChromeClient(new ChromeClient());
+        mWebView.setWebViewClient(new ViewClient());
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mWebView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_BOUND, true);
+        }
+
+        WebSettings webSettings = mWebView.getSettings();
+        webSettings.setAppCacheEnabled(false);
+        webSettings.setBlockNetworkImage(false);
+        webSettings.setBlockNetworkLoads(false);
+        webSettings.setBuiltInZoomControls(false);
+        webSettings.setDatabaseEnabled(false);
+        webSettings.setDisplayZoomControls(false);
+        webSettings.setDomStorageEnabled(true);
+        webSettings.setGeolocationEnabled(false);
+        webSettings.setJavaScriptCanOpenWindowsAutomatically(false);
+        webSettings.setJavaScriptEnabled(true);
+        webSettings.setLoadsImagesAutomatically(true);
+        webSettings.setMediaPlaybackRequiresUserGesture(false);
+        webSettings.setSaveFormData(false);
+        webSettings.setSupportMultipleWindows(false);
+        webSettings.setSupportZoom(false);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            webSettings.setMixedContentMode(WebSettings.MIXED_CONTENT_NEVER_ALLOW);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            webSettings.setDisabledActionModeMenuItems(WebSettings.MENU_ITEM_PROCESS_TEXT | WebSettings.MENU_ITEM_SHARE | WebSettings.MENU_ITEM_WEB_SEARCH);
+        }
+
+        mStartupTracer.endSection(StartupTracer.PHASE_CREATE_WEB_VIEW);
+    }
+
+    /**
+     * If necessary, creates {@link #mWebView} and starts the Zapic web page.
+     */
+    @MainThread
     private void startWebView() {
         if (mSafeBrowsingStarted == null || mWebPage == null) {
             return;
         }
 
-        if (mWebView == null) {
-            mWebView = new WebView(new MutableContextWrapper(mApplicationContext));
-            mWebView.setVisibility(View.GONE);
-            mWebView.addJavascriptInterface(mWebViewJavascriptBridge, VARIABLE_NAME);
-            mWebView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
-            mWebView.setOverScrollMode(View.OVER_SCROLL_NEVER);
-            mWebView.setWebChromeClient(new ChromeClient());
-            mWebView.setWebViewClient(new ViewClient());
+        createWebView();
+        assert mWebView != null : "mWebView == null";
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                mWebView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_BOUND, true);
-            }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mWebView.getSettings().setSafeBrowsingEnabled(mSafeBrowsingStarted);
+        }
 
-            WebSettings webSettings = mWebView.getSettings();
-            webSettings.setAppCacheEnabled(false);
-            webSettings.setBlockNetworkImage(false);
-            webSettings.setBlockNetworkLoads(false);
-            webSettings.setBuiltInZoomControls(false);
-            webSettings.setDatabaseEnabled(false);
-            webSettings.setDisplayZoomControls(false);
-            webSettings.setDomStorageEnabled(true);
-            webSettings.setGeolocationEnabled(false);
-            webSettings.setJavaScriptCanOpenWindowsAutomatically(false);
-            webSettings.setJavaScriptEnabled(true);
-            webSettings.setLoadsImagesAutomatically(true);
-            webSettings.setMediaPlaybackRequiresUserGesture(false);
-            webSettings.setSaveFormData(false);
-            webSettings.setSupportMultipleWindows(false);
-            webSettings.setSupportZoom(false);
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                webSettings.setMixedContentMode(WebSettings.MIXED_CONTENT_NEVER_ALLOW);
-            }
+        mStartupTracer.beginSection(StartupTracer.PHASE_LOAD_URL);
+        mWebView.loadUrl(URL_WITH_SLASH);
+        mStartupTracer.endSection(StartupTracer.PHASE_LOAD_URL);
+        mStartupTracer.markStart(StartupTracer.PHASE_APP_STARTED);
+    }
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-                webSettings.setDisabledActionModeMenuItems(WebSettings.MENU_ITEM_PROCESS_TEXT | WebSettings.MENU_ITEM_SHARE | WebSettings.MENU_ITEM_WEB_SEARCH);
-            }
+    /**
+     * Responds to memory pressure.
+     * <p>
+     * For moderate memory pressure (while the game is running or its UI is hidden), this clears the
+     * decoded notification message icons. For low or critical memory pressure while the game is
+     * running, this also clears the {@link WebView} caches. These are shared by all WebViews in the
+     * application, so they are not cleared simply because the game's UI is hidden. For background
+     * memory pressure (while the game is in the background and the process is likely to be
+     * killed), this destroys the {@link WebView} instance, which stops its renderer. The Zapic web
+     * page and queued events are kept, and the {@link WebView} instance is restored when an
+     * activity resumes.
+     *
+     * @param level The memory trim level.
+     */
+    @MainThread
+    private void onTrimMemory(final int level) {
+        mViewManager.onTrimMemory(level);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND && suspendWebView()) {
+            return;
+        }
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                webSettings.setSafeBrowsingEnabled(mSafeBrowsingStarted != null ? mSafeBrowsingStarted : false);
-            }
+        final boolean runningLow = level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+        if (runningLow && mWebView != null) {
+            final long startTime = System.nanoTime();
+            mWebView.clearCache(false);
+            mMetricsRecorder.recordRecovery(TIER_LOW, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * If necessary, recreates the {@link WebView} instance after a renderer crash.
+     */
+    @MainThread
+    private void restartWebView() {
+        if (mWebView != null || mWebViewSuspended) {
+            return;
         }
 
+        mRestartTime = SystemClock.uptimeMillis();
         if (mWebPage == null) {
-            mWebView.loadUrl("about:blank");
+            startDownload();
         } else {
-            mWebView.loadUrl(URL_WITH_SLASH);
+            startWebView();
+        }
+    }
+
+    /**
+     * If necessary, restores the {@link WebView} instance after it was destroyed to free memory.
+     */
+    @MainThread
+    private void restoreWebView() {
+        if (!mWebViewSuspended) {
+            return;
+        }
+
+        Log.i(TAG, "Restoring the Zapic web page");
+        mRestoreStartTime = System.nanoTime();
+        mWebViewSuspended = false;
+        startWebView();
+    }
+
+    /**
+     * If possible, destroys the {@link WebView} instance to free memory. This keeps the Zapic web
+     * page and queued events to restore it quickly.
+     *
+     * @return {@code true} if the {@link WebView} instance has been destroyed.
+     */
+    @MainThread
+    private boolean suspendWebView() {
+        if (mWebView == null || mWebPage == null || !mWebViewStarted || mViewManager.isWebPageVisible()) {
+            return false;
+        }
+
+        Log.i(TAG, "Destroying the Zapic web page to free memory");
+        mSessionManager.onWebViewCrashed();
+        mViewManager.onWebViewCrashed();
+        closeWebViewDispatcher();
+        mWebView.destroy();
+
+        mRestoreStartTime = 0;
+        mWebView = null;
+        mWebViewStarted = false;
+        mWebViewSuspended = true;
+        return true;
+    }
+
+    /**
+     * Receives memory pressure and activity lifecycle callbacks.
+     */
+    private final class ProcessCallbacks implements Application.ActivityLifecycleCallbacks, ComponentCallbacks2 {
+        @Override
+        public void onActivityCreated(final Activity activity, final Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(final Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(final Activity activity) {
+        }
+
+        @MainThread
+        @Override
+        public void onActivityResumed(final Activity activity) {
+            restoreWebView();
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(final Activity activity, final Bundle outState) {
+        }
+
+        @Override
+        public void onActivityStarted(final Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(final Activity activity) {
+        }
+
+        @Override
+        public void onConfigurationChanged(final Configuration newConfig) {
+        }
+
+        @MainThread
+        @Override
+        public void onLowMemory() {
+            onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+
+        @MainThread
+        @Override
+        public void onTrimMemory(final int level) {
+            WebViewManager.this.onTrimMemory(level);
+        }
+    }
+
+    /**
+     * Reads the characters of an ASCII string as bytes without copying the string.
+     */
+    private static final class AsciiInputStream extends InputStream {
+        /**
+         * The index of the next character.
+         */
+        private int mIndex;
+
+        /**
+         * The string.
+         */
+        @NonNull
+        private final String mString;
+
+        /**
+         * Creates a new {@link AsciiInputStream} instance.
+         *
+         * @param string The ASCII string.
+         */
+        @AnyThread
+        AsciiInputStream(@NonNull final String string) {
+            mIndex = 0;
+            mString = string;
+        }
+
+        @Override
+        public int read() {
+            return mIndex < mString.length() ? mString.charAt(mIndex++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NonNull final byte[] buffer, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            final int count = Math.min(length, mString.length() - mIndex);
+            if (count <= 0) {
+                return -1;
+            }
+
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) mString.charAt(mIndex++);
+            }
+
+            return count;
         }
     }
 
@@ -960,26 +1696,41 @@ public boolean onRenderProcessGone(final WebView view, final RenderProcessGoneDe
 
             mSessionManager.onWebViewCrashed();
             mViewManager.onWebViewCrashed();
+            closeWebViewDispatcher();
             view.destroy();
 
+            // This keeps the Zapic web page (and any download in progress) to recreate the WebView
+            // without reading the Zapic web page again.
+            mRestoreStartTime = 0;
+            mWebView = null;
+            mWebViewStarted = false;
+
             final boolean crashed = detail.didCrash();
+            if (!crashed && mWebPage != null && !mViewManager.isWebPageVisible()) {
+                Log.e(TAG, "The Zapic web page has stopped to free memory");
+                mWebViewSuspended = true;
+                return true;
+            }
+
             if (crashed) {
                 Log.e(TAG, "The Zapic web page has crashed");
             } else {
                 Log.e(TAG, "The Zapic web page has stopped to free memory");
             }
 
-            if (mWebPageTask != null) {
-                mWebPageTask.cancel(true);
+            mWebViewSuspended = false;
+            if (SystemClock.uptimeMillis() - mRestartTime > CRASH_RESET_TIME) {
+                mCrashCount = 0;
             }
 
-            mWebPage = null;
-            mWebPageTask = null;
-            mWebView = null;
-            mWebViewStarted = false;
+            final long delay = mCrashCount == 0 ? 0 : Math.min(CRASH_BACKOFF_MAX, CRASH_BACKOFF_BASE << Math.min(mCrashCount - 1, 16));
+            mCrashCount++;
+            if (delay > 0) {
+                Log.w(TAG, String.format(Locale.US, "Recreating the Zapic web page in %d ms", delay));
+            }
 
-            startDownload();
-            startSafeBrowsing();
+            mHandler.removeCallbacks(mRestartRunnable);
+            mHandler.postDelayed(mRestartRunnable, delay);
             return true;
         }
 
@@ -0,0 +1,289 @@
+package com.zapic.sdk.android;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Message;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.webkit.WebView;
+
+/**
+ * Throttles the {@link WebView} instance while the Zapic web page is hidden.
+ * <p>
+ * While throttled, the {@link WebView} instance is paused (see {@link WebView#onPause()}) for most
+ * of each period and resumed for a short active window. The Zapic web page sees itself as hidden
+ * while paused, which stops animation frames and throttles timers. Gameplay and interaction
+ * events are batched and flushed at the start of each active window. On Android 8.0 (API 26) and
+ * later, the renderer priority is also waived.
+ * <p>
+ * This does not use {@link WebView#pauseTimers()} because it pauses the timers of all
+ * {@link WebView} instances in the process (including any owned by the game).
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class WebViewThrottler {
+    /**
+     * Identifies the message that pauses the {@link WebView} instance.
+     */
+    private static final int ACTION_TYPE_PAUSE = 1000;
+
+    /**
+     * Identifies the message that resumes the {@link WebView} instance.
+     */
+    private static final int ACTION_TYPE_RESUME = 1001;
+
+    /**
+     * The default length (in milliseconds) of the active window of each period.
+     */
+    static final long DEFAULT_ACTIVE_TIME = 1000;
+
+    /**
+     * The default length (in milliseconds) of each period. Throttling is disabled by default
+     * because it delays events (and the notification messages they trigger).
+     */
+    static final long DEFAULT_PERIOD = 0;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "WebViewThrottler";
+
+    /**
+     * The message handler used to schedule the active windows.
+     */
+    @NonNull
+    private final Handler mHandler;
+
+    /**
+     * The {@link SessionManager} instance.
+     */
+    @NonNull
+    private final SessionManager mSessionManager;
+
+    /**
+     * The length (in milliseconds) of the active window of each period.
+     */
+    private long mActiveTime;
+
+    /**
+     * A value indicating whether the {@link WebView} instance is paused.
+     */
+    private boolean mPaused;
+
+    /**
+     * The length (in milliseconds) of each period or {@code 0} if throttling is disabled.
+     */
+    private long mPeriod;
+
+    /**
+     * A value indicating whether the {@link WebView} instance is throttled.
+     */
+    private boolean mThrottled;
+
+    /**
+     * A value indicating whether the Zapic web page is visible (or about to be visible).
+     */
+    private boolean mVisible;
+
+    /**
+     * The {@link WebView} instance or {@code null} if the Zapic web page has not started.
+     */
+    @Nullable
+    private WebView mWebView;
+
+    /**
+     * Creates a new {@link WebViewThrottler} instance.
+     *
+     * @param context        Any context object (e.g. the global {@link android.app.Application} or
+     *                       an {@link android.app.Activity}).
+     * @param sessionManager The {@link SessionManager} instance.
+     */
+    @MainThread
+    WebViewThrottler(@NonNull final Context context, @NonNull final SessionManager sessionManager) {
+        mActiveTime = DEFAULT_ACTIVE_TIME;
+        mHandler = new Handler(context.getApplicationContext().getMainLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(@Nullable final Message msg) {
+                if (msg == null) {
+                    return false;
+                }
+
+                switch (msg.what) {
+                    case ACTION_TYPE_PAUSE:
+                        onPauseHandled();
+                        break;
+                    case ACTION_TYPE_RESUME:
+                        onResumeHandled();
+                        break;
+                    default:
+                        break;
+                }
+
+                return true;
+            }
+        });
+        mPaused = false;
+        mPeriod = DEFAULT_PERIOD;
+        mSessionManager = sessionManager;
+        mThrottled = false;
+        mVisible = false;
+        mWebView = null;
+    }
+
+    /**
+     * Called when the {@link WebView} instance has loaded the Zapic web page.
+     *
+     * @param webView The {@link WebView} instance.
+     */
+    @MainThread
+    void onWebViewLoaded(@NonNull final WebView webView) {
+        stopThrottling();
+        mWebView = webView;
+        updateThrottling();
+    }
+
+    /**
+     * Called when the {@link WebView} instance has crashed (or has been destroyed).
+     */
+    @MainThread
+    void onWebViewCrashed() {
+        // The WebView instance has already been destroyed; simply forget its state.
+        mHandler.removeMessages(ACTION_TYPE_PAUSE);
+        mHandler.removeMessages(ACTION_TYPE_RESUME);
+        mPaused = false;
+        mThrottled = false;
+        mWebView = null;
+        mSessionManager.setBatched(false);
+    }
+
+    /**
+     * Sets the duty cycle used while the Zapic web page is hidden.
+     *
+     * @param activeTime The length (in milliseconds) of the active window of each period.
+     * @param period     The length (in milliseconds) of each period or {@code 0} to disable
+     *                   throttling.
+     */
+    @MainThread
+    void setDutyCycle(final long activeTime, final long period) {
+        stopThrottling();
+        mActiveTime = activeTime;
+        mPeriod = period;
+        updateThrottling();
+    }
+
+    /**
+     * Sets a value indicating whether the Zapic web page is visible (or about to be visible). The
+     * {@link WebView} instance is resumed immediately when this becomes {@code true}.
+     *
+     * @param visible {@code true} if the Zapic web page is visible.
+     */
+    @MainThread
+    void setVisible(final boolean visible) {
+        mVisible = visible;
+        updateThrottling();
+    }
+
+    /**
+     * Pauses the {@link WebView} instance and schedules the next active window.
+     */
+    @MainThread
+    private void onPauseHandled() {
+        if (!mThrottled || mWebView == null) {
+            return;
+        }
+
+        if (mActiveTime < mPeriod) {
+            mWebView.onPause();
+            mPaused = true;
+        }
+
+        mHandler.sendEmptyMessageDelayed(ACTION_TYPE_RESUME, mPeriod - mActiveTime);
+    }
+
+    /**
+     * Resumes the {@link WebView} instance, flushes batched events, and schedules the end of the
+     * active window.
+     */
+    @MainThread
+    private void onResumeHandled() {
+        if (!mThrottled || mWebView == null) {
+            return;
+        }
+
+        if (mPaused) {
+            mWebView.onResume();
+            mPaused = false;
+        }
+
+        mSessionManager.flushEvents();
+        mHandler.sendEmptyMessageDelayed(ACTION_TYPE_PAUSE, mActiveTime);
+    }
+
+    /**
+     * Starts throttling the {@link WebView} instance.
+     */
+    @MainThread
+    private void startThrottling() {
+        if (mThrottled || mWebView == null) {
+            return;
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Throttling the Zapic web page");
+        }
+
+        mThrottled = true;
+        mSessionManager.setBatched(true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mWebView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_WAIVED, false);
+        }
+
+        mHandler.sendEmptyMessageDelayed(ACTION_TYPE_PAUSE, mActiveTime);
+    }
+
+    /**
+     * Stops throttling the {@link WebView} instance. This resumes the {@link WebView} instance and
+     * flushes batched events immediately.
+     */
+    @MainThread
+    private void stopThrottling() {
+        if (!mThrottled || mWebView == null) {
+            return;
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Unthrottling the Zapic web page");
+        }
+
+        mHandler.removeMessages(ACTION_TYPE_PAUSE);
+        mHandler.removeMessages(ACTION_TYPE_RESUME);
+        if (mPaused) {
+            mWebView.onResume();
+            mPaused = false;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mWebView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_BOUND, true);
+        }
+
+        mThrottled = false;
+        mSessionManager.setBatched(false);
+    }
+
+    /**
+     * Starts or stops throttling the {@link WebView} instance depending on the current state.
+     */
+    @MainThread
+    private void updateThrottling() {
+        if (mWebView != null && !mVisible && mPeriod > 0) {
+            startThrottling();
+        } else {
+            stopThrottling();
+        }
+    }
+}
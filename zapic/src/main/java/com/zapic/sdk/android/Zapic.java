@@ -7,17 +7,21 @@
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.AnyThread;
 import android.support.annotation.CheckResult;
 import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
+import android.view.Choreographer;
 import android.webkit.WebView;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 
@@ -49,6 +53,13 @@
  * {@link ZapicActivity}. When the player shifts focus back to the game, the {@link ZapicActivity}
  * finishes and the {@link WebView} returns to the background (again managed by one or more non-UI
  * fragments attached to the game's activities).
+ * <p>
+ * The game may opt in to running the {@link WebView} in a separate {@code :zapic} process by adding
+ * a {@code com.zapic.sdk.android.SeparateProcess} meta-data element (with a value of {@code true})
+ * to its application manifest. This insulates the game's heap from the Zapic web page. Events,
+ * login and logout callbacks, and notification messages are relayed between the processes. The
+ * game's {@link Application} is also created in the separate process; the game may use
+ * {@link #isZapicProcess(Context)} to skip its own initialization there.
  *
  * @author Kyle Dodson
  * @since 1.0.0
@@ -78,12 +89,43 @@ public final class Zapic {
     @Nullable
     private static volatile Zapic sInstance = null;
 
+    /**
+     * The {@link ActivityTracker} instance.
+     */
+    @NonNull
+    private final ActivityTracker mActivityTracker;
+
+    /**
+     * The {@link FrameScheduler} instance.
+     */
+    @NonNull
+    private final FrameScheduler mFrameScheduler;
+
+    /**
+     * The {@link MetricsRecorder} instance.
+     */
+    @NonNull
+    private final MetricsRecorder mMetricsRecorder;
+
+    /**
+     * The {@link RemoteClient} instance or {@code null} if the {@link WebView} runs in the current
+     * process.
+     */
+    @Nullable
+    private final RemoteClient mRemoteClient;
+
     /**
      * The {@link SessionManager} instance.
      */
     @NonNull
     private final SessionManager mSessionManager;
 
+    /**
+     * The {@link StartupTracer} instance.
+     */
+    @NonNull
+    private final StartupTracer mStartupTracer;
+
     /**
      * The {@link ViewManager} instance.
      */
@@ -91,24 +133,54 @@ public final class Zapic {
     private final ViewManager mViewManager;
 
     /**
-     * The {@link WebViewManager} instance.
+     * The {@link WebViewManager} instance or {@code null} if the {@link WebView} runs in a
+     * separate process.
      */
-    @NonNull
+    @Nullable
     private final WebViewManager mWebViewManager;
 
+    /**
+     * The {@link WebViewThrottler} instance.
+     */
+    @NonNull
+    private final WebViewThrottler mWebViewThrottler;
+
+    /**
+     * A value indicating whether the {@link WebView} has been configured and the Zapic web page
+     * has started loading.
+     */
+    private boolean mWarmedUp;
+
     /**
      * Creates a new {@link Zapic} instance.
      * <p>
      * <b>This constructor must be invoked on the UI thread.</b>
      *
-     * @param context Any context object (e.g. the global {@link Application} or an
-     *                {@link Activity}).
+     * @param context       Any context object (e.g. the global {@link Application} or an
+     *                      {@link Activity}).
+     * @param startupTracer The {@link StartupTracer} instance.
      */
     @MainThread
-    private Zapic(@NonNull final Context context) {
-        mSessionManager = new SessionManager(context);
-        mViewManager = new ViewManager();
-        mWebViewManager = new WebViewManager(context, mSessionManager, mViewManager);
+    private Zapic(@NonNull final Context context, @NonNull final StartupTracer startupTracer) {
+        mMetricsRecorder = new MetricsRecorder();
+        mFrameScheduler = new FrameScheduler(mMetricsRecorder);
+        mStartupTracer = startupTracer;
+        mSessionManager = new SessionManager(context, mFrameScheduler);
+        mWebViewThrottler = new WebViewThrottler(context, mSessionManager);
+        if (ProcessUtilities.isSeparateProcessEnabled(context) && !ProcessUtilities.isZapicProcess(context)) {
+            // The game process only relays events and shows banners. The WebView components are
+            // created in the separate process.
+            mViewManager = new ViewManager(mFrameScheduler, new IconDecoder(context), null, null, mWebViewThrottler);
+            mWebViewManager = null;
+            mRemoteClient = new RemoteClient(context, mSessionManager, mViewManager);
+        } else {
+            mViewManager = new ViewManager(mFrameScheduler, new IconDecoder(context), new ImageProcessor(context), new SnapshotCache(context), mWebViewThrottler);
+            mWebViewManager = new WebViewManager(context, mSessionManager, mViewManager, mFrameScheduler, mMetricsRecorder, mStartupTracer);
+            mRemoteClient = null;
+        }
+
+        mActivityTracker = new ActivityTracker(context, mViewManager);
+        mWarmedUp = false;
     }
 
     /**
@@ -116,7 +188,8 @@ private Zapic(@NonNull final Context context) {
      * messages.
      * <p>
      * This must be invoked to relay intents and notification messages. It should be invoked in all
-     * {@link Activity#onCreate(Bundle)} lifecycle event callbacks.
+     * {@link Activity#onCreate(Bundle)} lifecycle event callbacks. If activity tracking is enabled
+     * (see {@link #setActivityTrackingEnabled(boolean)}), this only starts Zapic.
      * <p>
      * <b>This method must be invoked on the UI thread.</b>
      *
@@ -145,6 +218,10 @@ public static void attachFragment(@Nullable final Activity activity) {
             assert instance != null : "instance is null";
         }
 
+        if (instance.mActivityTracker.isEnabled()) {
+            return;
+        }
+
         instance.mViewManager.attachFragment(activity);
     }
 
@@ -210,6 +287,32 @@ public static ZapicPlayer getCurrentPlayer() {
         return instance.mSessionManager.getCurrentPlayer();
     }
 
+    /**
+     * Gets a snapshot of the metrics of the messages exchanged between the game and the Zapic web
+     * page.
+     * <p>
+     * This method may be invoked on any thread.
+     *
+     * @return The snapshot.
+     * @throws IllegalStateException If {@link #start(Context)} has not been invoked.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static ZapicMetrics getMetrics() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "getMetrics");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        return instance.mMetricsRecorder.getMetrics();
+    }
+
     /**
      * Handles an interaction event. Depending on the event parameters, Zapic may open and show
      * contextual information related to the specific interaction.
@@ -275,6 +378,36 @@ public static void handleInteraction(@Nullable final String parameters) {
         }
     }
 
+    /**
+     * Gets a value indicating whether the current process is the separate process that runs the
+     * Zapic web page.
+     * <p>
+     * This is only {@code true} if the game has opted in to the separate process. The game may use
+     * this to skip its own initialization in the {@link Application#onCreate()} lifecycle event
+     * callback. {@link #start(Context)} must still be invoked in the separate process.
+     * <p>
+     * This method may be invoked on any thread.
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     * @return {@code true} if the current process is the separate process.
+     * @throws IllegalArgumentException If {@code context} is {@code null}.
+     */
+    @AnyThread
+    @CheckResult
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static boolean isZapicProcess(@Nullable final Context context) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "isZapicProcess");
+        }
+
+        if (context == null) {
+            throw new IllegalArgumentException("context must not be null");
+        }
+
+        return ProcessUtilities.isSeparateProcessEnabled(context) && ProcessUtilities.isZapicProcess(context);
+    }
+
     /**
      * Gets the {@link SessionManager}, {@link ViewManager}, and {@link WebViewManager} instances.
      * <p>
@@ -311,6 +444,351 @@ static Managers onAttachedFragment(@Nullable final Context context) {
         return new Managers(instance.mSessionManager, instance.mViewManager, instance.mWebViewManager);
     }
 
+    /**
+     * Prepares the specified page in the background so that it is shown immediately if the player
+     * opens it soon.
+     * <p>
+     * This should be invoked when the player is likely to open a page (for example, while the
+     * game's main menu is visible). Zapic opens and renders the page in the background. If
+     * {@link #showPage(Activity, String)} is invoked with the same page within 15 seconds, the page
+     * is shown without waiting for it to load. Otherwise, the page is closed and Zapic returns to
+     * running in the background.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param page The page to prepare.
+     * @throws IllegalArgumentException    If {@code page} is {@code null}.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     * @see ZapicPages
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void preparePage(@Nullable final String page) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "preparePage");
+        }
+
+        if (page == null) {
+            throw new IllegalArgumentException("page must not be null");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.warmUpIfNeeded();
+        if (instance.mRemoteClient != null) {
+            instance.mRemoteClient.preparePage(page);
+        } else {
+            instance.mViewManager.preparePage(page);
+        }
+    }
+
+    /**
+     * Sets a value indicating whether Zapic tracks the game's activities with
+     * {@link Application.ActivityLifecycleCallbacks} instead of fragments.
+     * <p>
+     * By default, {@link #attachFragment(Activity)} attaches a retained fragment to each activity
+     * with a synchronous fragment transaction. If activity tracking is enabled,
+     * {@link #attachFragment(Activity)} does not attach fragments and activities are tracked
+     * without adding work to their creation. This should be enabled in
+     * {@link Application#onCreate()} (after {@link #start(Context)}) so that activities resumed
+     * before it is enabled are not missed. Activity tracking is disabled by default.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param activityTrackingEnabled {@code true} to track activities with lifecycle callbacks.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setActivityTrackingEnabled(final boolean activityTrackingEnabled) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setActivityTrackingEnabled");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mActivityTracker.setEnabled(activityTrackingEnabled);
+    }
+
+    /**
+     * Sets the duty cycle used to throttle Zapic while it runs in the background (i.e. while the
+     * player is playing the game).
+     * <p>
+     * While in the background, Zapic runs for {@code activeTime} milliseconds of every
+     * {@code period} milliseconds and is paused otherwise. Gameplay and interaction events are
+     * batched and delivered at the start of each active window, so they (and any notification
+     * messages they trigger) may be delayed by up to {@code period - activeTime} milliseconds.
+     * Zapic resumes immediately when it is shown. By default, throttling is disabled. A duty cycle
+     * of 1 second of every 5 seconds is a reasonable starting point.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param activeTime The length (in milliseconds) of the active window of each period.
+     * @param period     The length (in milliseconds) of each period or {@code 0} to disable
+     *                   throttling.
+     * @throws IllegalArgumentException    If {@code period} is not {@code 0} and
+     *                                     {@code activeTime} is not between {@code 1} and
+     *                                     {@code period}.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setBackgroundThrottling(final long activeTime, final long period) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setBackgroundThrottling");
+        }
+
+        if (period < 0 || (period > 0 && (activeTime <= 0 || activeTime > period))) {
+            throw new IllegalArgumentException("activeTime must be between 1 and period (or period must be 0)");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mWebViewThrottler.setDutyCycle(activeTime, period);
+    }
+
+    /**
+     * Sets the time Zapic may spend on non-urgent work (e.g. showing notification messages,
+     * delivering events, and attaching fragments) in each frame.
+     * <p>
+     * Non-urgent work is queued and spread across frames so that it does not cause the game to
+     * drop frames. Work that the player is waiting for (e.g. showing a page) is never delayed. At
+     * least one queued task runs in each frame. The number of frames consumed is reported by
+     * {@link ZapicMetrics#getDeferredWorkTime()}. By default, Zapic spends up to 4 milliseconds of
+     * each frame.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param budget The time (in nanoseconds) or {@code 0} to run non-urgent work immediately.
+     * @throws IllegalArgumentException    If {@code budget} is negative.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setFrameBudget(final long budget) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setFrameBudget");
+        }
+
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mFrameScheduler.setBudget(budget);
+    }
+
+    /**
+     * Sets the limits of images chosen by the player (e.g. for a profile picture).
+     * <p>
+     * Camera and gallery images are rotated upright, scaled down to fit within
+     * {@code maxDimension} pixels, and re-encoded with the specified quality before they are
+     * returned to Zapic. By default, images are scaled down to fit within 1024 pixels and encoded
+     * with a quality of 85.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param maxDimension The maximum width and height (in pixels).
+     * @param quality      The quality (between {@code 0} and {@code 100}).
+     * @throws IllegalArgumentException    If {@code maxDimension} is less than {@code 1} or
+     *                                     {@code quality} is not between {@code 0} and
+     *                                     {@code 100}.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setImageLimits(final int maxDimension, final int quality) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setImageLimits");
+        }
+
+        if (maxDimension < 1) {
+            throw new IllegalArgumentException("maxDimension must be at least 1");
+        }
+
+        if (quality < 0 || quality > 100) {
+            throw new IllegalArgumentException("quality must be between 0 and 100");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mViewManager.setImageLimits(maxDimension, quality);
+    }
+
+    /**
+     * Sets the listener that is notified after each message exchanged between the game and the
+     * Zapic web page has been handled.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param listener The listener. This may be {@code null} to unsubscribe a previous listener.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setMetricsListener(@Nullable final ZapicMetricsListener listener) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setMetricsListener");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mMetricsRecorder.setListener(listener);
+    }
+
+    /**
+     * Sets the listener that is notified after Zapic has started (i.e. after the Zapic web page is
+     * ready to be shown for the first time).
+     * <p>
+     * If Zapic has already started, the {@link ZapicStartupListener#onStartupCompleted} method
+     * will be immediately invoked with the startup timeline.
+     * <p>
+     * The startup timeline is recorded in the process that runs the Zapic web page. If the game
+     * has opted in to the separate {@code :zapic} process, the listener must be set in that
+     * process (see {@link #isZapicProcess(Context)}); a listener set in the game process is never
+     * notified.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param listener The listener. This may be {@code null} to unsubscribe a previous listener.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setStartupListener(@Nullable final ZapicStartupListener listener) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setStartupListener");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        if (instance.mRemoteClient != null && listener != null) {
+            Log.w(TAG, "The startup timeline is recorded in the separate process; set the startup listener there");
+        }
+
+        instance.mStartupTracer.setListener(listener);
+    }
+
+    /**
+     * Sets the limits of the notification message queue.
+     * <p>
+     * Notification messages (e.g. completed achievements and challenges) are shown one at a time,
+     * at most one every 2 seconds. Up to {@code maxQueued} notification messages wait to be shown;
+     * if more arrive, the lowest priority, newest notification messages are dropped. If
+     * {@code coalescingEnabled} is {@code true}, a notification message in the same group as a
+     * waiting notification message (as sent by the Zapic web page) is merged into it (e.g. "+5
+     * more"). While notification messages are waiting, each is shown for a shorter time. By
+     * default, up to 5 notification messages wait and coalescing is enabled.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param maxQueued         The maximum number of notification messages that wait to be shown.
+     * @param coalescingEnabled {@code true} to merge matching notification messages.
+     * @throws IllegalArgumentException    If {@code maxQueued} is less than {@code 1}.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setNotificationLimits(final int maxQueued, final boolean coalescingEnabled) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setNotificationLimits");
+        }
+
+        if (maxQueued < 1) {
+            throw new IllegalArgumentException("maxQueued must be at least 1");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.mViewManager.setNotificationLimits(maxQueued, coalescingEnabled);
+    }
+
+    /**
+     * Sets a value indicating whether Zapic is shown in an overlay attached to the game's activity
+     * window instead of a separate activity.
+     * <p>
+     * The overlay avoids the cost of starting an activity and pausing the game's activity. It does
+     * not support choosing images (e.g. for a profile picture). This is ignored if Zapic runs in a
+     * separate process. The overlay mode is disabled by default.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param overlayEnabled {@code true} to show Zapic in an overlay.
+     * @throws IllegalStateException       If {@link #start(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void setOverlayEnabled(final boolean overlayEnabled) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "setOverlayEnabled");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        if (instance.mRemoteClient != null) {
+            // The WebView is hosted in the separate process and cannot be shown in an overlay
+            // attached to the game's activity window.
+            return;
+        }
+
+        instance.mViewManager.setOverlayEnabled(overlayEnabled);
+    }
+
     /**
      * Sets the authentication handler that is notified after a player has logged in or out.
      * <p>
@@ -359,6 +837,7 @@ public static void setPlayerAuthenticationHandler(@Nullable final ZapicPlayerAut
      *                {@link Activity}).
      * @throws IllegalArgumentException    If {@code context} is {@code null}.
      * @throws IllegalThreadStateException If not invoked on the UI thread.
+     * @see #startDeferred(Context)
      */
     @MainThread
     @SuppressWarnings({"unused", "WeakerAccess"})
@@ -373,28 +852,62 @@ public static void start(@Nullable final Context context) {
 
         ensureUIThread();
 
-        if (sInstance == null) {
-            synchronized (INSTANCE_LOCK) {
-                if (BuildConfig.DEBUG) {
-                    // This enables WebView debugging for all WebViews in the current process. Changes
-                    // to this value are accepted only before the WebView process is created.
-                    WebView.setWebContentsDebuggingEnabled(true);
-                }
+        create(context).warmUpIfNeeded();
+    }
 
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
-                    // This marks "zapic.net" as a safe domain for all WebViews in the current process.
-                    // Changes to this value are accepted only before the WebView process is created.
-                    WebView.setSafeBrowsingWhitelist(Collections.singletonList("zapic.net"), null);
-                }
+    /**
+     * Starts Zapic without delaying the game's launch.
+     * <p>
+     * This is an alternative to {@link #start(Context)}. All {@link Zapic} methods may be invoked
+     * after {@code startDeferred}, but the work to start Zapic (configuring the
+     * {@link WebView}, which loads Chromium, and loading the Zapic web page) is deferred until the
+     * UI thread is idle after the next frame has been rendered, until {@link #warmUp()} is
+     * invoked, or until a page is prepared or shown, whichever comes first. Gameplay events
+     * submitted in between are queued and delivered after the Zapic web page has loaded.
+     * <p>
+     * In the separate process (see {@link #isZapicProcess(Context)}), this starts Zapic
+     * immediately.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     * @throws IllegalArgumentException    If {@code context} is {@code null}.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void startDeferred(@Nullable final Context context) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "startDeferred");
+        }
 
-                if (sInstance == null) {
-                    Log.i(TAG, String.format("Starting Zapic %s (%s)", BuildConfig.VERSION_NAME, BuildConfig.BUILD_TYPE));
-                    final Zapic zapic = new Zapic(context);
-                    sInstance = zapic;
-                    zapic.mWebViewManager.start();
-                }
-            }
+        if (context == null) {
+            throw new IllegalArgumentException("context must not be null");
+        }
+
+        ensureUIThread();
+
+        final Zapic instance = create(context);
+        if (ProcessUtilities.isZapicProcess(context)) {
+            instance.warmUpIfNeeded();
+            return;
         }
+
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @MainThread
+            @Override
+            public void doFrame(final long frameTimeNanos) {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @MainThread
+                    @Override
+                    public boolean queueIdle() {
+                        instance.warmUpIfNeeded();
+                        return false;
+                    }
+                });
+            }
+        });
     }
 
     /**
@@ -414,6 +927,9 @@ public static void showDefaultPage(@Nullable final Activity activity) {
     /**
      * Opens Zapic and shows the specified page.
      * <p>
+     * If the overlay mode is enabled (see {@link #setOverlayEnabled(boolean)}), the page is shown
+     * in an overlay attached to {@code activity}'s window.
+     * <p>
      * This method may be invoked on any thread.
      *
      * @param activity The {@link Activity} object.
@@ -427,6 +943,23 @@ public static void showPage(@Nullable final Activity activity, @Nullable final S
             Log.d(TAG, "showPage");
         }
 
+        if (activity == null) {
+            throw new IllegalArgumentException("activity must not be null");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance != null && instance.mRemoteClient == null && instance.mViewManager.isOverlayEnabled()) {
+            final ViewManager viewManager = instance.mViewManager;
+            activity.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    instance.warmUpIfNeeded();
+                    viewManager.showOverlay(activity, page == null ? "default" : page);
+                }
+            });
+            return;
+        }
+
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             activity.startActivity(ZapicActivity.createIntent(activity, page), ActivityOptions.makeSceneTransitionAnimation(activity).toBundle());
         } else {
@@ -493,6 +1026,87 @@ public static void submitEvent(@Nullable final String parameters) {
         }
     }
 
+    /**
+     * Handles a batch of gameplay events.
+     * <p>
+     * This is intended for game engines that call Zapic through JNI (e.g. Unity). The events are
+     * passed in a single (preferably direct) buffer, so each frame's events cross JNI once and
+     * are not serialized to or parsed from JSON strings. The buffer is read with its current byte
+     * order from its position to its limit:
+     * <pre>
+     * int32 eventCount
+     * eventCount times:
+     *   int32 parameterCount
+     *   parameterCount times:
+     *     int32 keyLength, keyLength bytes (UTF-8)
+     *     int8  type (0 = boolean, 1 = int64, 2 = float64, 3 = string)
+     *     value (boolean: int8; int64; float64; string: int32 length, length bytes (UTF-8))
+     * </pre>
+     * The batch is decoded before any event is submitted; if the buffer is malformed, no events
+     * are submitted and its position is not changed. Events without parameters are ignored.
+     * <p>
+     * This method may be invoked on any thread.
+     *
+     * @param events The buffer of events. Its position is advanced past the decoded events.
+     * @throws IllegalArgumentException If {@code events} is {@code null}, is malformed, or contains
+     *                                  a value that is not supported (e.g. {@code NaN}).
+     * @throws IllegalStateException    If {@link #start(Context)} has not been invoked.
+     */
+    @AnyThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void submitEvents(@Nullable final ByteBuffer events) {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "submitEvents");
+        }
+
+        if (events == null) {
+            throw new IllegalArgumentException("events must not be null");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        final ArrayList<JSONObject> messages = EventBatchDecoder.decode(events);
+        if (instance.mRemoteClient != null) {
+            for (final JSONObject message : messages) {
+                instance.mRemoteClient.handleEvent(message);
+            }
+        } else {
+            instance.mSessionManager.handleEvents(messages);
+        }
+    }
+
+    /**
+     * Finishes starting Zapic if it was started with {@link #startDeferred(Context)}.
+     * <p>
+     * This may be invoked when the game can afford the work (for example, after its splash screen
+     * has been dismissed). This does nothing if Zapic has already finished starting.
+     * <p>
+     * <b>This method must be invoked on the UI thread.</b>
+     *
+     * @throws IllegalStateException       If {@link #start(Context)} or
+     *                                     {@link #startDeferred(Context)} has not been invoked.
+     * @throws IllegalThreadStateException If not invoked on the UI thread.
+     */
+    @MainThread
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public static void warmUp() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "warmUp");
+        }
+
+        final Zapic instance = Zapic.sInstance;
+        if (instance == null) {
+            throw new IllegalStateException("Zapic has not been started");
+        }
+
+        ensureUIThread();
+
+        instance.warmUpIfNeeded();
+    }
+
     /**
      * Handles a gameplay or interaction event by relaying it to the {@link WebView}.
      * <p>
@@ -532,10 +1146,14 @@ private static void handleEvent(@NonNull final String type, @NonNull final JSONO
         }
 
         try {
-            instance.mSessionManager.handleEvent(
-                    new JSONObject()
-                            .put("type", type)
-                            .put("params", parameters));
+            final JSONObject message = new JSONObject()
+                    .put("type", type)
+                    .put("params", parameters);
+            if (instance.mRemoteClient != null) {
+                instance.mRemoteClient.handleEvent(message);
+            } else {
+                instance.mSessionManager.handleEvent(message);
+            }
         } catch (JSONException ignored) {
         }
     }
@@ -557,4 +1175,68 @@ private static void ensureUIThread() {
             }
         }
     }
+
+    /**
+     * Creates the {@link Zapic} instance if it does not exist. This does not start loading the
+     * Zapic web page (see {@link #warmUpIfNeeded()}).
+     *
+     * @param context Any context object (e.g. the global {@link Application} or an
+     *                {@link Activity}).
+     * @return The {@link Zapic} instance.
+     */
+    @MainThread
+    @NonNull
+    private static Zapic create(@NonNull final Context context) {
+        Zapic instance = sInstance;
+        if (instance == null) {
+            synchronized (INSTANCE_LOCK) {
+                instance = sInstance;
+                if (instance == null) {
+                    Log.i(TAG, String.format("Starting Zapic %s (%s)", BuildConfig.VERSION_NAME, BuildConfig.BUILD_TYPE));
+                    instance = new Zapic(context, new StartupTracer());
+                    sInstance = instance;
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Configures the {@link WebView} and starts loading the Zapic web page (or connecting to the
+     * separate process) if this has not already been done.
+     */
+    @MainThread
+    private void warmUpIfNeeded() {
+        if (mWarmedUp) {
+            return;
+        }
+
+        mWarmedUp = true;
+        mStartupTracer.beginSection(StartupTracer.PHASE_START);
+        if (mRemoteClient != null) {
+            // The WebView is configured in the separate process. Configuring it here would load
+            // the WebView implementation in the game process.
+            mRemoteClient.start();
+        } else {
+            if (BuildConfig.DEBUG) {
+                // This enables WebView debugging for all WebViews in the current process. Changes
+                // to this value are accepted only before the WebView process is created.
+                WebView.setWebContentsDebuggingEnabled(true);
+            }
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+                // This marks "zapic.net" as a safe domain for all WebViews in the current
+                // process. Changes to this value are accepted only before the WebView process is
+                // created.
+                WebView.setSafeBrowsingWhitelist(Collections.singletonList("zapic.net"), null);
+            }
+
+            assert mWebViewManager != null : "mWebViewManager == null";
+            mViewManager.loadSnapshot();
+            mWebViewManager.start();
+        }
+
+        mStartupTracer.endSection(StartupTracer.PHASE_START);
+    }
 }
@@ -0,0 +1,430 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Represents a snapshot of the messages exchanged between the game and the Zapic web page.
+ * <p>
+ * Received messages are sent by the Zapic web page to the game. Sent messages are sent by the game
+ * to the Zapic web page. Messages are grouped by their action type (for example, "SHOW_BANNER").
+ * Images received through the binary side channel are grouped under the "IMAGE" type.
+ * <p>
+ * Recovery times are grouped by the memory pressure tier Zapic responded to ("LOW" or
+ * "BACKGROUND").
+ * <p>
+ * Non-urgent work (for example, showing banners) is spread across frames within a per-frame budget
+ * (see {@link Zapic#setFrameBudget(long)}). The deferred work metrics describe each frame that ran
+ * deferred work; the number of values is the number of frames consumed.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public final class ZapicMetrics {
+    /**
+     * The number of deferred tasks run in each frame.
+     */
+    @NonNull
+    private final Histogram mDeferredTaskCount;
+
+    /**
+     * The time spent running deferred tasks in each frame.
+     */
+    @NonNull
+    private final Histogram mDeferredWorkTime;
+
+    /**
+     * The received message metrics, by type.
+     */
+    @NonNull
+    private final Map<String, MessageMetrics> mReceived;
+
+    /**
+     * The recovery times, by memory pressure tier.
+     */
+    @NonNull
+    private final Map<String, Histogram> mRecoveryTime;
+
+    /**
+     * The sent message metrics, by type.
+     */
+    @NonNull
+    private final Map<String, MessageMetrics> mSent;
+
+    /**
+     * Creates a new {@link ZapicMetrics} instance.
+     *
+     * @param deferredTaskCount The number of deferred tasks run in each frame.
+     * @param deferredWorkTime  The time spent running deferred tasks in each frame.
+     * @param received          The received message metrics, by type.
+     * @param recoveryTime      The recovery times, by memory pressure tier.
+     * @param sent              The sent message metrics, by type.
+     */
+    @AnyThread
+    ZapicMetrics(@NonNull final Histogram deferredTaskCount, @NonNull final Histogram deferredWorkTime, @NonNull final Map<String, MessageMetrics> received, @NonNull final Map<String, Histogram> recoveryTime, @NonNull final Map<String, MessageMetrics> sent) {
+        mDeferredTaskCount = deferredTaskCount;
+        mDeferredWorkTime = deferredWorkTime;
+        mReceived = Collections.unmodifiableMap(received);
+        mRecoveryTime = Collections.unmodifiableMap(recoveryTime);
+        mSent = Collections.unmodifiableMap(sent);
+    }
+
+    /**
+     * Gets the number of deferred tasks run in each frame.
+     *
+     * @return The number of deferred tasks run in each frame.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public Histogram getDeferredTaskCount() {
+        return mDeferredTaskCount;
+    }
+
+    /**
+     * Gets the time (in nanoseconds) spent running deferred tasks in each frame. The number of
+     * values is the number of frames consumed by deferred work.
+     *
+     * @return The time spent running deferred tasks in each frame.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public Histogram getDeferredWorkTime() {
+        return mDeferredWorkTime;
+    }
+
+    /**
+     * Gets the received message metrics, by type.
+     *
+     * @return The received message metrics, by type.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public Map<String, MessageMetrics> getReceived() {
+        return mReceived;
+    }
+
+    /**
+     * Gets the recovery times (in nanoseconds), by memory pressure tier.
+     * <p>
+     * For the "LOW" tier, this is the time spent releasing caches on the UI thread. For the
+     * "BACKGROUND" tier, this is the time from when Zapic starts restoring the torn down
+     * {@link android.webkit.WebView} until the Zapic web page has started again.
+     *
+     * @return The recovery times, by memory pressure tier.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public Map<String, Histogram> getRecoveryTime() {
+        return mRecoveryTime;
+    }
+
+    /**
+     * Gets the sent message metrics, by type.
+     *
+     * @return The sent message metrics, by type.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public Map<String, MessageMetrics> getSent() {
+        return mSent;
+    }
+
+    /**
+     * Represents a snapshot of a distribution of values.
+     * <p>
+     * Values are counted in buckets with exponentially increasing upper bounds ({@code 0},
+     * {@code 1}, {@code 3}, {@code 7}, ..., {@code 2^i - 1}). Percentiles are approximated by the
+     * upper bound of the bucket that contains the percentile.
+     */
+    public static final class Histogram {
+        /**
+         * The number of values in each bucket.
+         */
+        @NonNull
+        private final long[] mBuckets;
+
+        /**
+         * The number of values.
+         */
+        private final long mCount;
+
+        /**
+         * The maximum value.
+         */
+        private final long mMax;
+
+        /**
+         * The minimum value.
+         */
+        private final long mMin;
+
+        /**
+         * The sum of the values.
+         */
+        private final long mSum;
+
+        /**
+         * Creates a new {@link Histogram} instance.
+         *
+         * @param buckets The number of values in each bucket.
+         * @param count   The number of values.
+         * @param max     The maximum value.
+         * @param min     The minimum value.
+         * @param sum     The sum of the values.
+         */
+        @AnyThread
+        Histogram(@NonNull final long[] buckets, final long count, final long max, final long min, final long sum) {
+            mBuckets = buckets;
+            mCount = count;
+            mMax = max;
+            mMin = min;
+            mSum = sum;
+        }
+
+        /**
+         * Gets the number of values.
+         *
+         * @return The number of values.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * Gets the maximum value.
+         *
+         * @return The maximum value or {@code 0} if there are no values.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * Gets the mean value.
+         *
+         * @return The mean value or {@code 0} if there are no values.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mSum / mCount;
+        }
+
+        /**
+         * Gets the minimum value.
+         *
+         * @return The minimum value or {@code 0} if there are no values.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getMin() {
+            return mMin;
+        }
+
+        /**
+         * Gets the approximate value at the specified percentile.
+         *
+         * @param percentile The percentile (between {@code 0} and {@code 100}).
+         * @return The approximate value or {@code 0} if there are no values.
+         * @throws IllegalArgumentException If {@code percentile} is not between {@code 0} and
+         *                                  {@code 100}.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getPercentile(final double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+
+            if (mCount == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mCount));
+            long count = 0;
+            for (int i = 0; i < mBuckets.length; i++) {
+                count += mBuckets[i];
+                if (count >= rank) {
+                    final long upperBound = i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.max(mMin, Math.min(mMax, upperBound));
+                }
+            }
+
+            return mMax;
+        }
+
+        /**
+         * Gets the sum of the values.
+         *
+         * @return The sum of the values.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getSum() {
+            return mSum;
+        }
+    }
+
+    /**
+     * Represents a snapshot of the metrics of a single message type.
+     * <p>
+     * Sizes are measured in bytes. Times are measured in nanoseconds.
+     */
+    public static final class MessageMetrics {
+        /**
+         * The time spent decoding (received messages) or encoding (sent messages) each message.
+         */
+        @NonNull
+        private final Histogram mCodingTime;
+
+        /**
+         * The time each received message waited to be decoded.
+         */
+        @NonNull
+        private final Histogram mDecodeQueueTime;
+
+        /**
+         * The time each message waited to be handled (or sent) on the UI thread.
+         */
+        @NonNull
+        private final Histogram mHandlerQueueTime;
+
+        /**
+         * The time spent handling each message on the UI thread.
+         */
+        @NonNull
+        private final Histogram mHandlingTime;
+
+        /**
+         * The size of each message.
+         */
+        @NonNull
+        private final Histogram mSize;
+
+        /**
+         * Creates a new {@link MessageMetrics} instance.
+         *
+         * @param codingTime       The time spent decoding or encoding each message.
+         * @param decodeQueueTime  The time each received message waited to be decoded.
+         * @param handlerQueueTime The time each message waited to be handled (or sent) on the UI
+         *                         thread.
+         * @param handlingTime     The time spent handling each message on the UI thread.
+         * @param size             The size of each message.
+         */
+        @AnyThread
+        MessageMetrics(@NonNull final Histogram codingTime, @NonNull final Histogram decodeQueueTime, @NonNull final Histogram handlerQueueTime, @NonNull final Histogram handlingTime, @NonNull final Histogram size) {
+            mCodingTime = codingTime;
+            mDecodeQueueTime = decodeQueueTime;
+            mHandlerQueueTime = handlerQueueTime;
+            mHandlingTime = handlingTime;
+            mSize = size;
+        }
+
+        /**
+         * Gets the time spent decoding (received messages) or encoding (sent messages) each
+         * message.
+         *
+         * @return The time spent decoding or encoding each message.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public Histogram getCodingTime() {
+            return mCodingTime;
+        }
+
+        /**
+         * Gets the number of messages.
+         *
+         * @return The number of messages.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getCount() {
+            return mSize.getCount();
+        }
+
+        /**
+         * Gets the time each received message waited to be decoded. This is empty for sent
+         * messages.
+         *
+         * @return The time each received message waited to be decoded.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public Histogram getDecodeQueueTime() {
+            return mDecodeQueueTime;
+        }
+
+        /**
+         * Gets the time each message waited to be handled on the UI thread. For received
+         * messages, this is the time between decoding and handling. For sent messages, this is the
+         * time waiting to be sent.
+         *
+         * @return The time each message waited to be handled on the UI thread.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public Histogram getHandlerQueueTime() {
+            return mHandlerQueueTime;
+        }
+
+        /**
+         * Gets the time spent handling each message on the UI thread. For sent messages, this is
+         * the time spent passing the message to the {@link android.webkit.WebView}.
+         *
+         * @return The time spent handling each message on the UI thread.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public Histogram getHandlingTime() {
+            return mHandlingTime;
+        }
+
+        /**
+         * Gets the size of each message. For messages passed as strings, this is the size of the
+         * UTF-16 string.
+         *
+         * @return The size of each message.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public Histogram getSize() {
+            return mSize;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+/**
+ * Represents a listener that is notified after each message exchanged between the game and the
+ * Zapic web page has been handled.
+ * <p>
+ * The listener may be used to identify the messages responsible for dropped frames. The listener
+ * is invoked on the UI thread and must return quickly.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public interface ZapicMetricsListener {
+    /**
+     * Invoked after a message has been handled on the UI thread.
+     *
+     * @param type         The message type (for example, "SHOW_BANNER").
+     * @param received     {@code true} if the message was sent by the Zapic web page to the game;
+     *                     {@code false} if the message was sent by the game to the Zapic web page.
+     * @param queueTime    The time (in nanoseconds) the message waited to be handled on the UI
+     *                     thread or {@code -1} if it is not known.
+     * @param handlingTime The time (in nanoseconds) spent handling the message on the UI thread.
+     */
+    @MainThread
+    void onMessageHandled(@NonNull String type, boolean received, long queueTime, long handlingTime);
+}
@@ -0,0 +1,440 @@
+package com.zapic.sdk.android;
+
+import android.app.Activity;
+import android.content.MutableContextWrapper;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.os.Build;
+import android.support.annotation.CheckResult;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.KeyEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+import android.webkit.WebSettings;
+import android.webkit.WebView;
+import android.widget.FrameLayout;
+import android.widget.ImageButton;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+/**
+ * Shows the Zapic user interface in an overlay attached to the window of a game's activity.
+ * <p>
+ * This is an alternative to {@link ZapicActivity} that avoids pausing the game's activity (and
+ * recreating its surfaces). The overlay mirrors the loading, retry, and web pages of the
+ * {@link ZapicActivity}. The {@link WebView} instance is moved into the overlay and slides in from
+ * the bottom of the window. The overlay is closed with the close button, the back button, or by
+ * the Zapic web page.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+final class ZapicOverlay {
+    /**
+     * The duration of the fade-in, fade-out, and slide animations. This matches the
+     * {@link ZapicActivity} animations.
+     */
+    private static final int FADE_DURATION = 220;
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "ZapicOverlay";
+
+    /**
+     * The game's activity.
+     */
+    @NonNull
+    private final Activity mActivity;
+
+    /**
+     * The close button.
+     */
+    @NonNull
+    private final ImageButton mCloseButton;
+
+    /**
+     * The overlay container.
+     */
+    @NonNull
+    private final FrameLayout mContainer;
+
+    /**
+     * The key listener used to close the overlay when the back button is pressed.
+     */
+    @NonNull
+    private final View.OnKeyListener mKeyListener;
+
+    /**
+     * The loading progress bar.
+     */
+    @NonNull
+    private final ProgressBar mProgressBar;
+
+    /**
+     * The retry message.
+     */
+    @NonNull
+    private final TextView mRetryText;
+
+    /**
+     * The {@link ViewManager} instance.
+     */
+    @NonNull
+    private final ViewManager mViewManager;
+
+    /**
+     * The current animation of the {@link WebView} instance.
+     */
+    @Nullable
+    private ViewPropertyAnimator mAnimation;
+
+    /**
+     * A value indicating whether the overlay has been dismissed.
+     */
+    private boolean mDismissed;
+
+    /**
+     * The page to show.
+     */
+    @NonNull
+    private String mPage;
+
+    /**
+     * A value indicating whether the overlay has been removed from the window.
+     */
+    private boolean mRemoved;
+
+    /**
+     * The {@link WebView} instance or {@code null} if the web page is not shown.
+     */
+    @Nullable
+    private WebView mWebView;
+
+    /**
+     * Creates a new {@link ZapicOverlay} instance. The overlay is not attached until
+     * {@link #show()} is called.
+     *
+     * @param activity    The game's activity.
+     * @param viewManager The {@link ViewManager} instance.
+     * @param page        The page to show.
+     */
+    @MainThread
+    @SuppressWarnings("deprecation")
+    ZapicOverlay(@NonNull final Activity activity, @NonNull final ViewManager viewManager, @NonNull final String page) {
+        mActivity = activity;
+        mAnimation = null;
+        mDismissed = false;
+        mKeyListener = new View.OnKeyListener() {
+            @MainThread
+            @Override
+            public boolean onKey(final View v, final int keyCode, final KeyEvent event) {
+                if (keyCode != KeyEvent.KEYCODE_BACK) {
+                    return false;
+                }
+
+                if (event.getAction() == KeyEvent.ACTION_UP) {
+                    dismiss(true);
+                }
+
+                return true;
+            }
+        };
+        mPage = page;
+        mRemoved = false;
+        mViewManager = viewManager;
+        mWebView = null;
+
+        mContainer = new FrameLayout(activity);
+        mContainer.setBackgroundColor(Color.argb(204, 0, 0, 0));
+        mContainer.setClickable(true);
+        mContainer.setFocusableInTouchMode(true);
+        mContainer.setOnKeyListener(mKeyListener);
+
+        mProgressBar = new ProgressBar(activity);
+        mProgressBar.setIndeterminate(true);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            mProgressBar.getIndeterminateDrawable().setColorFilter(activity.getResources().getColor(android.R.color.white), PorterDuff.Mode.SRC_IN);
+        }
+
+        mContainer.addView(mProgressBar, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        mRetryText = new TextView(activity);
+        mRetryText.setGravity(Gravity.CENTER_HORIZONTAL);
+        mRetryText.setText("Could not connect to Zapic.\nPlease check your Internet connection.");
+        mRetryText.setTextColor(Color.WHITE);
+        mRetryText.setTextSize(TypedValue.COMPLEX_UNIT_SP, 14);
+        mRetryText.setVisibility(View.GONE);
+
+        final FrameLayout.LayoutParams retryLayoutParams = new FrameLayout.LayoutParams(FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+        retryLayoutParams.bottomMargin = dpToPx(24);
+        mContainer.addView(mRetryText, retryLayoutParams);
+
+        mCloseButton = new ImageButton(activity);
+        mCloseButton.setBackgroundColor(Color.TRANSPARENT);
+        mCloseButton.setContentDescription("Close");
+        mCloseButton.setImageResource(R.drawable.zapic_close_24dp);
+        mCloseButton.setOnClickListener(new View.OnClickListener() {
+            @MainThread
+            @Override
+            public void onClick(final View v) {
+                dismiss(true);
+            }
+        });
+        mCloseButton.setVisibility(View.GONE);
+
+        final FrameLayout.LayoutParams closeLayoutParams = new FrameLayout.LayoutParams(FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.TOP | Gravity.START);
+        closeLayoutParams.setMarginStart(dpToPx(8));
+        closeLayoutParams.topMargin = dpToPx(8);
+        mContainer.addView(mCloseButton, closeLayoutParams);
+    }
+
+    /**
+     * Dismisses the overlay and returns the {@link WebView} instance to the background. This
+     * notifies the {@link ViewManager} instance after the overlay has been removed.
+     *
+     * @param animate {@code true} to slide out the {@link WebView} instance and fade out the
+     *                overlay; {@code false} to remove the overlay immediately (including if it is
+     *                already animating out).
+     */
+    @MainThread
+    void dismiss(final boolean animate) {
+        if (mDismissed) {
+            if (!animate && !mRemoved) {
+                mContainer.animate().cancel();
+                remove();
+            }
+
+            return;
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Dismissing the Zapic overlay");
+        }
+
+        mDismissed = true;
+        if (mAnimation != null) {
+            mAnimation.cancel();
+            mAnimation = null;
+        }
+
+        if (animate && mContainer.isAttachedToWindow()) {
+            if (mWebView != null) {
+                mWebView.animate().y(mContainer.getHeight()).setDuration(FADE_DURATION);
+            }
+
+            mContainer.animate().alpha(0).setDuration(FADE_DURATION).withEndAction(new Runnable() {
+                @MainThread
+                @Override
+                public void run() {
+                    remove();
+                }
+            });
+        } else {
+            remove();
+        }
+    }
+
+    /**
+     * Gets the game's activity.
+     *
+     * @return The game's activity.
+     */
+    @CheckResult
+    @MainThread
+    @NonNull
+    Activity getActivity() {
+        return mActivity;
+    }
+
+    /**
+     * Gets a value indicating whether the overlay has been dismissed. The overlay may still be
+     * animating out.
+     *
+     * @return {@code true} if the overlay has been dismissed.
+     */
+    @CheckResult
+    @MainThread
+    boolean isDismissed() {
+        return mDismissed;
+    }
+
+    /**
+     * Gets the page to show.
+     *
+     * @return The page to show.
+     */
+    @CheckResult
+    @MainThread
+    @NonNull
+    String getPage() {
+        return mPage;
+    }
+
+    /**
+     * Sets the page to show.
+     *
+     * @param page The page to show.
+     */
+    @MainThread
+    void setPage(@NonNull final String page) {
+        mPage = page;
+    }
+
+    /**
+     * Attaches the overlay to the window of the game's activity and fades it in.
+     */
+    @MainThread
+    void show() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Showing the Zapic overlay");
+        }
+
+        final ViewGroup decorView = (ViewGroup) mActivity.getWindow().getDecorView();
+        decorView.addView(mContainer, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        mContainer.setAlpha(0);
+        mContainer.animate().alpha(1).setDuration(FADE_DURATION);
+        mContainer.requestFocus();
+    }
+
+    /**
+     * Shows the loading page.
+     */
+    @MainThread
+    void showLoadingPage() {
+        mProgressBar.setVisibility(View.VISIBLE);
+        mCloseButton.setVisibility(View.VISIBLE);
+        mRetryText.setVisibility(View.GONE);
+        hideWebPage();
+    }
+
+    /**
+     * Shows the retry page. The Zapic web page continues to be downloaded in the background.
+     */
+    @MainThread
+    void showRetryPage() {
+        mProgressBar.setVisibility(View.GONE);
+        mCloseButton.setVisibility(View.VISIBLE);
+        mRetryText.setVisibility(View.VISIBLE);
+        hideWebPage();
+    }
+
+    /**
+     * Shows the {@link WebView} instance. The {@link WebView} instance slides in from the bottom
+     * of the window.
+     *
+     * @param webView The {@link WebView} instance.
+     */
+    @MainThread
+    void showWebPage(@NonNull final WebView webView) {
+        if (mWebView == webView || mDismissed) {
+            return;
+        }
+
+        hideWebPage();
+        mWebView = webView;
+
+        final MutableContextWrapper webViewContext = (MutableContextWrapper) webView.getContext();
+        webViewContext.setBaseContext(mActivity);
+
+        webView.setLayoutParams(new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        webView.setOnKeyListener(mKeyListener);
+        mContainer.addView(webView);
+
+        webView.setY(mContainer.getHeight());
+        webView.setVisibility(View.VISIBLE);
+        webView.requestFocus();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            final WebSettings settings = webView.getSettings();
+            settings.setOffscreenPreRaster(true);
+        }
+
+        mAnimation = webView.animate().y(0).setDuration(FADE_DURATION).withEndAction(new Runnable() {
+            @MainThread
+            @Override
+            public void run() {
+                mAnimation = null;
+                mContainer.setBackgroundColor(Color.argb(255, 0, 0, 0));
+                mCloseButton.setVisibility(View.GONE);
+                mProgressBar.setVisibility(View.GONE);
+                mRetryText.setVisibility(View.GONE);
+
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                    final WebSettings settings = webView.getSettings();
+                    settings.setOffscreenPreRaster(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Converts density-independent pixels to pixels.
+     *
+     * @param dp The density-independent pixels.
+     * @return The pixels.
+     */
+    @CheckResult
+    @MainThread
+    private int dpToPx(final int dp) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, mActivity.getResources().getDisplayMetrics()));
+    }
+
+    /**
+     * Returns the {@link WebView} instance to the background.
+     */
+    @MainThread
+    private void hideWebPage() {
+        mContainer.setBackgroundColor(Color.argb(204, 0, 0, 0));
+        if (mAnimation != null) {
+            mAnimation.cancel();
+            mAnimation = null;
+        }
+
+        if (mWebView != null) {
+            mWebView.animate().cancel();
+            mWebView.setOnKeyListener(null);
+            mWebView.setVisibility(View.GONE);
+            mWebView.setY(0);
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                final WebSettings settings = mWebView.getSettings();
+                settings.setOffscreenPreRaster(false);
+            }
+
+            mContainer.removeView(mWebView);
+
+            final MutableContextWrapper webViewContext = (MutableContextWrapper) mWebView.getContext();
+            webViewContext.setBaseContext(mActivity.getApplicationContext());
+
+            mWebView = null;
+        }
+    }
+
+    /**
+     * Removes the overlay from the window of the game's activity and notifies the
+     * {@link ViewManager} instance.
+     */
+    @MainThread
+    private void remove() {
+        if (mRemoved) {
+            return;
+        }
+
+        mRemoved = true;
+        hideWebPage();
+
+        final ViewGroup parent = (ViewGroup) mContainer.getParent();
+        if (parent != null) {
+            parent.removeView(mContainer);
+        }
+
+        mViewManager.onOverlayDismissed(this);
+    }
+}
@@ -0,0 +1,14 @@
+package com.zapic.sdk.android;
+
+/**
+ * An activity used to show the Zapic user interface when Zapic runs in a separate process.
+ * <p>
+ * This is declared with the {@code :zapic} process in the manifest so that it runs alongside the
+ * {@link ZapicService} and the {@link android.webkit.WebView} instance. Otherwise, it is identical
+ * to {@link ZapicActivity}.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public final class ZapicRemoteActivity extends BaseZapicActivity {
+}
@@ -0,0 +1,377 @@
+package com.zapic.sdk.android;
+
+import android.app.Service;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+
+/**
+ * A service that hosts the Zapic web page in a separate process.
+ * <p>
+ * This is only used if the game has opted in to the separate process (see
+ * {@link ProcessUtilities}). The game process binds to this service with a {@link RemoteClient}.
+ * Batches of gameplay and interaction events are relayed to the Zapic web page. Login and logout
+ * callbacks, notification messages, and requests to show the Zapic web page are relayed back to
+ * the game process.
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public final class ZapicService extends Service {
+    /**
+     * Identifies the message that registers a game process client.
+     */
+    static final int MSG_REGISTER_CLIENT = 1;
+
+    /**
+     * Identifies the message that relays a batch of gameplay and interaction events.
+     */
+    static final int MSG_SUBMIT_EVENTS = 2;
+
+    /**
+     * Identifies the message that relays a login callback.
+     */
+    static final int MSG_LOGGED_IN = 3;
+
+    /**
+     * Identifies the message that relays a logout callback.
+     */
+    static final int MSG_LOGGED_OUT = 4;
+
+    /**
+     * Identifies the message that relays a notification message.
+     */
+    static final int MSG_SHOW_BANNER = 5;
+
+    /**
+     * Identifies the message that relays a request to show the Zapic web page.
+     */
+    static final int MSG_SHOW_PAGE = 6;
+
+    /**
+     * Identifies the message that relays a request to prepare a page.
+     */
+    static final int MSG_PREPARE_PAGE = 7;
+
+    /**
+     * The key of the serialized gameplay and interaction events.
+     */
+    @NonNull
+    static final String KEY_EVENTS = "events";
+
+    /**
+     * The key of the notification group.
+     */
+    @NonNull
+    static final String KEY_GROUP = "group";
+
+    /**
+     * The key of the encoded notification image.
+     */
+    @NonNull
+    static final String KEY_IMAGE = "image";
+
+    /**
+     * The key of the serialized notification metadata.
+     */
+    @NonNull
+    static final String KEY_METADATA = "metadata";
+
+    /**
+     * The key of the player's notification token.
+     */
+    @NonNull
+    static final String KEY_NOTIFICATION_TOKEN = "notificationToken";
+
+    /**
+     * The key of the page to prepare.
+     */
+    @NonNull
+    static final String KEY_PAGE = "page";
+
+    /**
+     * The key of the player's unique identifier.
+     */
+    @NonNull
+    static final String KEY_PLAYER_ID = "playerId";
+
+    /**
+     * The key of the notification priority.
+     */
+    @NonNull
+    static final String KEY_PRIORITY = "priority";
+
+    /**
+     * The key of the notification text.
+     */
+    @NonNull
+    static final String KEY_TEXT = "text";
+
+    /**
+     * The key of the notification title.
+     */
+    @NonNull
+    static final String KEY_TITLE = "title";
+
+    /**
+     * The tag used to identify log messages.
+     */
+    @NonNull
+    private static final String TAG = "ZapicService";
+
+    /**
+     * The registered game process clients.
+     */
+    @NonNull
+    private final ArrayList<Messenger> mClients;
+
+    /**
+     * The messenger that receives messages from the game process clients or {@code null} if the
+     * service has not been created.
+     */
+    @Nullable
+    private Messenger mMessenger;
+
+    /**
+     * The {@link SessionManager} instance or {@code null} if the service has not been created.
+     */
+    @Nullable
+    private SessionManager mSessionManager;
+
+    /**
+     * The {@link ViewManager} instance or {@code null} if the service has not been created.
+     */
+    @Nullable
+    private ViewManager mViewManager;
+
+    /**
+     * Creates a new {@link ZapicService} instance.
+     */
+    @MainThread
+    public ZapicService() {
+        mClients = new ArrayList<>();
+        mMessenger = null;
+        mSessionManager = null;
+        mViewManager = null;
+    }
+
+    @MainThread
+    @Nullable
+    @Override
+    public IBinder onBind(@Nullable final Intent intent) {
+        assert mMessenger != null : "mMessenger == null";
+        return mMessenger.getBinder();
+    }
+
+    @MainThread
+    @Override
+    public void onCreate() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "onCreate");
+        }
+
+        super.onCreate();
+
+        final Managers managers = Zapic.onAttachedFragment(this);
+        mSessionManager = managers.getSessionManager();
+        mSessionManager.setRelayAuthenticationHandler(new ZapicPlayerAuthenticationHandler() {
+            @Override
+            public void onLogin(@NonNull final ZapicPlayer player) {
+                send(createLoginMessage(player));
+            }
+
+            @Override
+            public void onLogout(@NonNull final ZapicPlayer player) {
+                send(Message.obtain(null, MSG_LOGGED_OUT));
+            }
+        });
+        mViewManager = managers.getViewManager();
+        mViewManager.setService(this);
+        mMessenger = new Messenger(new Handler(getMainLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(@Nullable final Message msg) {
+                if (msg == null) {
+                    return false;
+                }
+
+                switch (msg.what) {
+                    case MSG_REGISTER_CLIENT:
+                        onRegisterClientHandled(msg.replyTo);
+                        break;
+                    case MSG_SUBMIT_EVENTS:
+                        onSubmitEventsHandled(msg.getData().getStringArrayList(KEY_EVENTS));
+                        break;
+                    case MSG_PREPARE_PAGE:
+                        onPreparePageHandled(msg.getData().getString(KEY_PAGE));
+                        break;
+                    default:
+                        break;
+                }
+
+                return true;
+            }
+        }));
+    }
+
+    @MainThread
+    @Override
+    public void onDestroy() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "onDestroy");
+        }
+
+        if (mSessionManager != null) {
+            mSessionManager.setRelayAuthenticationHandler(null);
+            mSessionManager = null;
+        }
+
+        if (mViewManager != null) {
+            mViewManager.setService(null);
+            mViewManager = null;
+        }
+
+        mClients.clear();
+        mMessenger = null;
+        super.onDestroy();
+    }
+
+    /**
+     * Relays a notification message to the game process.
+     *
+     * @param notification The notification message.
+     * @return {@code true} if the notification message was relayed to a game process client.
+     */
+    @MainThread
+    boolean relayNotification(@NonNull final Notification notification) {
+        final Message message = Message.obtain(null, MSG_SHOW_BANNER);
+        final Bundle data = message.getData();
+        data.putString(KEY_TITLE, notification.getTitle());
+        data.putString(KEY_TEXT, notification.getText());
+        data.putByteArray(KEY_IMAGE, notification.getImageBytes());
+        data.putString(KEY_GROUP, notification.getGroup());
+        data.putInt(KEY_PRIORITY, notification.getPriority());
+
+        final JSONObject metadata = notification.getMetadata();
+        data.putString(KEY_METADATA, metadata == null ? null : metadata.toString());
+        return send(message);
+    }
+
+    /**
+     * Relays a request to show the Zapic web page to the game process.
+     *
+     * @return {@code true} if the request was relayed to a game process client.
+     */
+    @MainThread
+    boolean relayShowPage() {
+        return send(Message.obtain(null, MSG_SHOW_PAGE));
+    }
+
+    /**
+     * Creates a message that relays a login callback.
+     *
+     * @param player The current player.
+     * @return The message.
+     */
+    @MainThread
+    @NonNull
+    private static Message createLoginMessage(@NonNull final ZapicPlayer player) {
+        final Message message = Message.obtain(null, MSG_LOGGED_IN);
+        final Bundle data = message.getData();
+        data.putString(KEY_PLAYER_ID, player.getPlayerId());
+        data.putString(KEY_NOTIFICATION_TOKEN, player.getNotificationToken());
+        return message;
+    }
+
+    /**
+     * Prepares a page in the background.
+     *
+     * @param page The page or {@code null} if the message did not include a page.
+     */
+    @MainThread
+    private void onPreparePageHandled(@Nullable final String page) {
+        if (page != null && mViewManager != null) {
+            mViewManager.preparePage(page);
+        }
+    }
+
+    /**
+     * Registers a game process client. The current player is relayed to the client immediately.
+     *
+     * @param client The client or {@code null} if the message did not include a reply messenger.
+     */
+    @MainThread
+    private void onRegisterClientHandled(@Nullable final Messenger client) {
+        if (client == null || mClients.contains(client)) {
+            return;
+        }
+
+        mClients.add(client);
+
+        final ZapicPlayer player = mSessionManager == null ? null : mSessionManager.getCurrentPlayer();
+        try {
+            client.send(player == null ? Message.obtain(null, MSG_LOGGED_OUT) : createLoginMessage(player));
+        } catch (RemoteException e) {
+            mClients.remove(client);
+        }
+    }
+
+    /**
+     * Relays a batch of gameplay and interaction events to the Zapic web page.
+     *
+     * @param events The serialized events or {@code null} if the message did not include events.
+     */
+    @MainThread
+    private void onSubmitEventsHandled(@Nullable final ArrayList<String> events) {
+        if (events == null || mSessionManager == null) {
+            return;
+        }
+
+        final ArrayList<JSONObject> messages = new ArrayList<>(events.size());
+        for (final String event : events) {
+            try {
+                messages.add(new JSONObject(event));
+            } catch (JSONException e) {
+                Log.e(TAG, "Failed to parse a relayed event", e);
+            }
+        }
+
+        mSessionManager.handleEvents(messages);
+    }
+
+    /**
+     * Sends a message to all registered game process clients. Clients that have died are
+     * unregistered.
+     *
+     * @param message The message. This is recycled after it is sent.
+     * @return {@code true} if the message was sent to at least one client.
+     */
+    @MainThread
+    private boolean send(@NonNull final Message message) {
+        boolean sent = false;
+        for (int i = mClients.size() - 1; i >= 0; i--) {
+            final Message copy = Message.obtain(message);
+            try {
+                mClients.get(i).send(copy);
+                sent = true;
+            } catch (RemoteException e) {
+                mClients.remove(i);
+            }
+        }
+
+        message.recycle();
+        return sent;
+    }
+}
@@ -0,0 +1,25 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+/**
+ * Represents a listener that is notified after Zapic has started.
+ * <p>
+ * The listener may be used to aggregate startup times across players and to identify regressions.
+ * The listener is invoked on the UI thread and must return quickly. If the game has opted in to
+ * the separate {@code :zapic} process, the listener is only notified in that process (see
+ * {@link Zapic#setStartupListener(ZapicStartupListener)}).
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public interface ZapicStartupListener {
+    /**
+     * Invoked after the Zapic web page is ready to be shown for the first time.
+     *
+     * @param timeline The timeline of the phases that started Zapic.
+     */
+    @MainThread
+    void onStartupCompleted(@NonNull ZapicStartupTimeline timeline);
+}
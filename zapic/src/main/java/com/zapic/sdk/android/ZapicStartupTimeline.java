@@ -0,0 +1,168 @@
+package com.zapic.sdk.android;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.CheckResult;
+import android.support.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the timeline of the phases that start Zapic, from {@link Zapic#start} until the Zapic
+ * web page is ready to be shown.
+ * <p>
+ * Times are measured in nanoseconds from a monotonic clock and are relative to the start of
+ * {@link Zapic#start} (or {@link Zapic#startDeferred}). Phases are ordered by their start times.
+ * Some phases run in parallel (for example, "downloadWebPage" and "createWebView"). The following
+ * phases are recorded (if they occur):
+ * <ul>
+ * <li>"start": configuring the {@link android.webkit.WebView} and starting the remaining phases
+ * (immediately in {@link Zapic#start} or later if deferred by {@link Zapic#startDeferred})</li>
+ * <li>"deleteShareDir": deleting previously shared images</li>
+ * <li>"getWebPage": reading the cached Zapic web page</li>
+ * <li>"downloadWebPage": revalidating and downloading the Zapic web page</li>
+ * <li>"injectScript": injecting the bootstrap script into the Zapic web page</li>
+ * <li>"startSafeBrowsing": initializing Safe Browsing</li>
+ * <li>"createWebView": constructing and configuring the {@link android.webkit.WebView}</li>
+ * <li>"loadUrl": loading the Zapic web page into the {@link android.webkit.WebView}</li>
+ * <li>"APP_STARTED": from the end of "loadUrl" until the Zapic web page has started</li>
+ * <li>"PAGE_READY": from the end of "APP_STARTED" until the Zapic web page is ready</li>
+ * </ul>
+ *
+ * @author Kyle Dodson
+ * @since 1.3.0
+ */
+public final class ZapicStartupTimeline {
+    /**
+     * The phases, ordered by their start times.
+     */
+    @NonNull
+    private final List<Phase> mPhases;
+
+    /**
+     * The total time.
+     */
+    private final long mTotalTime;
+
+    /**
+     * Creates a new {@link ZapicStartupTimeline} instance.
+     *
+     * @param phases    The phases, ordered by their start times.
+     * @param totalTime The total time.
+     */
+    @AnyThread
+    ZapicStartupTimeline(@NonNull final List<Phase> phases, final long totalTime) {
+        mPhases = Collections.unmodifiableList(phases);
+        mTotalTime = totalTime;
+    }
+
+    /**
+     * Gets the phases, ordered by their start times.
+     *
+     * @return The phases.
+     */
+    @AnyThread
+    @CheckResult
+    @NonNull
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public List<Phase> getPhases() {
+        return mPhases;
+    }
+
+    /**
+     * Gets the total time (in nanoseconds) from the start of {@link Zapic#start} until the Zapic
+     * web page was ready to be shown.
+     *
+     * @return The total time.
+     */
+    @AnyThread
+    @CheckResult
+    @SuppressWarnings({"unused", "WeakerAccess"})
+    public long getTotalTime() {
+        return mTotalTime;
+    }
+
+    /**
+     * Represents a single phase of the timeline.
+     */
+    public static final class Phase {
+        /**
+         * The end time.
+         */
+        private final long mEndTime;
+
+        /**
+         * The name.
+         */
+        @NonNull
+        private final String mName;
+
+        /**
+         * The start time.
+         */
+        private final long mStartTime;
+
+        /**
+         * Creates a new {@link Phase} instance.
+         *
+         * @param name      The name.
+         * @param startTime The start time.
+         * @param endTime   The end time.
+         */
+        @AnyThread
+        Phase(@NonNull final String name, final long startTime, final long endTime) {
+            mEndTime = endTime;
+            mName = name;
+            mStartTime = startTime;
+        }
+
+        /**
+         * Gets the duration (in nanoseconds).
+         *
+         * @return The duration.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getDuration() {
+            return mEndTime - mStartTime;
+        }
+
+        /**
+         * Gets the end time (in nanoseconds, relative to the start of {@link Zapic#start}).
+         *
+         * @return The end time.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getEndTime() {
+            return mEndTime;
+        }
+
+        /**
+         * Gets the name (for example, "downloadWebPage").
+         *
+         * @return The name.
+         */
+        @AnyThread
+        @CheckResult
+        @NonNull
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Gets the start time (in nanoseconds, relative to the start of {@link Zapic#start}).
+         *
+         * @return The start time.
+         */
+        @AnyThread
+        @CheckResult
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        public long getStartTime() {
+            return mStartTime;
+        }
+    }
+}
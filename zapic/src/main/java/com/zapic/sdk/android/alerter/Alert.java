@@ -56,6 +56,13 @@ public class Alert extends FrameLayout implements View.OnClickListener, Animatio
 
     private Animation slideInAnimation;
     private Animation slideOutAnimation;
+    private Animation.AnimationListener slideOutListener;
+    private SwipeDismissTouchListener swipeDismissTouchListener;
+
+    /**
+     * The layout height of the background, restored when the Alert is reused
+     */
+    private int backgroundHeight;
 
     private OnShowAlertListener onShowListener;
     private OnHideAlertListener onHideListener;
@@ -127,16 +134,88 @@ private void initView() {
         rlContainer = findViewById(R.id.rlContainer);
 
         flBackground.setOnClickListener(this);
+        backgroundHeight = flBackground.getLayoutParams().height;
 
-        //Setup Enter & Exit Animations
+        //Setup Enter & Exit Animations once; they are reused when the Alert is recycled
         slideInAnimation = AnimationUtils.loadAnimation(getContext(), R.anim.slide_in_from_top);
         slideOutAnimation = AnimationUtils.loadAnimation(getContext(), R.anim.slide_out_to_top);
+        slideOutListener = new Animation.AnimationListener() {
+            @Override
+            public void onAnimationStart(final Animation animation) {
+                getAlertBackground().setOnClickListener(null);
+                getAlertBackground().setClickable(false);
+            }
+
+            @Override
+            public void onAnimationEnd(final Animation animation) {
+                removeFromParent();
+            }
+
+            @Override
+            public void onAnimationRepeat(final Animation animation) {
+                //Ignore
+            }
+        };
         slideInAnimation.setAnimationListener(this);
+        slideOutAnimation.setAnimationListener(slideOutListener);
+
+        runningAnimation = new Runnable() {
+            @Override
+            public void run() {
+                hide();
+            }
+        };
 
         //Set Animation to be Run when View is added to Window
         setAnimation(slideInAnimation);
     }
 
+    /**
+     * Restores the initial state of a detached Alert so it may be shown again. This rebinds the
+     * default icon, click listener and enter animation, and clears the title, text and listeners.
+     */
+    void reset() {
+        removeCallbacks(runningAnimation);
+        clearAnimation();
+        animate().cancel();
+        setAlpha(1f);
+        setVisibility(View.VISIBLE);
+
+        //Undo any swipe to dismiss
+        flBackground.animate().cancel();
+        flBackground.setAlpha(1f);
+        flBackground.setTranslationX(0);
+        final ViewGroup.LayoutParams params = flBackground.getLayoutParams();
+        if (params.height != backgroundHeight) {
+            params.height = backgroundHeight;
+            flBackground.setLayoutParams(params);
+        }
+
+        flBackground.setOnClickListener(this);
+        flBackground.setOnTouchListener(null);
+        flBackground.setClickable(true);
+        flClickShield.setClickable(false);
+
+        tvTitle.setText(null);
+        tvTitle.setVisibility(GONE);
+        tvText.setText(null);
+        tvText.setVisibility(GONE);
+        ivIcon.setImageResource(R.drawable.zapic_logo_64dp);
+        ivIcon.setVisibility(VISIBLE);
+
+        dismissable = true;
+        duration = DISPLAY_TIME_IN_SECONDS;
+        enableInfiniteDuration = false;
+        vibrationEnabled = true;
+        onShowListener = null;
+        onHideListener = null;
+
+        slideInAnimation.reset();
+        slideOutAnimation.reset();
+        slideInAnimation.setAnimationListener(this);
+        setAnimation(slideInAnimation);
+    }
+
     @Override
     protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
@@ -213,13 +292,6 @@ public void onAnimationEnd(final Animation animation) {
     private void startHideAnimation() {
         //Start the Handler to clean up the Alert
         if (!enableInfiniteDuration) {
-            runningAnimation = new Runnable() {
-                @Override
-                public void run() {
-                    hide();
-                }
-            };
-
             postDelayed(runningAnimation, duration);
         }
     }
@@ -236,24 +308,6 @@ public void onAnimationRepeat(final Animation animation) {
      */
     public void hide() {
         try {
-            slideOutAnimation.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationStart(final Animation animation) {
-                    getAlertBackground().setOnClickListener(null);
-                    getAlertBackground().setClickable(false);
-                }
-
-                @Override
-                public void onAnimationEnd(final Animation animation) {
-                    removeFromParent();
-                }
-
-                @Override
-                public void onAnimationRepeat(final Animation animation) {
-                    //Ignore
-                }
-            });
-
             startAnimation(slideOutAnimation);
         } catch (Exception ex) {
             Log.e(getClass().getSimpleName(), Log.getStackTraceString(ex));
@@ -275,10 +329,14 @@ public void run() {
                         Log.e(getClass().getSimpleName(), "getParent() returning Null");
                     } else {
                         try {
-                            ((ViewGroup) getParent()).removeView(Alert.this);
-
-                            if (getOnHideListener() != null) {
-                                getOnHideListener().onHide();
+                            final OnHideAlertListener listener = getOnHideListener();
+                            final ViewGroup parent = (ViewGroup) getParent();
+                            parent.removeView(Alert.this);
+
+                            //Recycle before notifying, the listener may show the next Alert
+                            Alerter.recycle(parent, Alert.this);
+                            if (listener != null) {
+                                listener.onHide();
                             }
                         } catch (Exception ex) {
                             Log.e(getClass().getSimpleName(), "Cannot remove from parent layout");
@@ -517,22 +575,26 @@ public void showIcon(final boolean showIcon) {
      * Set whether to enable swipe to dismiss or not
      */
     public void enableSwipeToDismiss() {
-        flBackground.setOnTouchListener(new SwipeDismissTouchListener(flBackground, null, new SwipeDismissTouchListener.DismissCallbacks() {
-            @Override
-            public boolean canDismiss(final Object token) {
-                return true;
-            }
+        if (swipeDismissTouchListener == null) {
+            swipeDismissTouchListener = new SwipeDismissTouchListener(flBackground, null, new SwipeDismissTouchListener.DismissCallbacks() {
+                @Override
+                public boolean canDismiss(final Object token) {
+                    return true;
+                }
 
-            @Override
-            public void onDismiss(final View view, final Object token) {
-                removeFromParent();
-            }
+                @Override
+                public void onDismiss(final View view, final Object token) {
+                    removeFromParent();
+                }
 
-            @Override
-            public void onTouch(final View view, final boolean touch) {
-                // Ignore
-            }
-        }));
+                @Override
+                public void onTouch(final View view, final boolean touch) {
+                    // Ignore
+                }
+            });
+        }
+
+        flBackground.setOnTouchListener(swipeDismissTouchListener);
     }
 
     /**
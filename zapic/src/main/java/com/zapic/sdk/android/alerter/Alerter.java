@@ -33,6 +33,11 @@ public final class Alerter {
 
     private static WeakReference<Activity> activityWeakReference;
 
+    /**
+     * The most recently shown Alert, used instead of scanning the Decor View
+     */
+    private static WeakReference<Alert> alertWeakReference;
+
     private Alert alert;
 
     /**
@@ -59,11 +64,45 @@ public static Alerter create(@NonNull final Activity activity) {
         Alerter.clearCurrent(activity);
 
         alerter.setActivity(activity);
-        alerter.setAlert(new Alert(activity));
+        alerter.setAlert(obtainAlert(activity));
 
         return alerter;
     }
 
+    /**
+     * Reuses the Alert recycled on the Activity's Decor View, or creates a new one. Reusing an
+     * Alert avoids inflating its layout and loading its animations on every show.
+     *
+     * @param activity The calling Activity
+     * @return A detached Alert
+     */
+    @NonNull
+    private static Alert obtainAlert(@NonNull final Activity activity) {
+        final View decorView = activity.getWindow().getDecorView();
+        final Object tag = decorView.getTag(R.id.alerter_recycled_alert);
+        decorView.setTag(R.id.alerter_recycled_alert, null);
+        if (tag instanceof Alert && ((Alert) tag).getParent() == null) {
+            final Alert alert = (Alert) tag;
+            alert.reset();
+            return alert;
+        }
+
+        return new Alert(activity);
+    }
+
+    /**
+     * Keeps a removed Alert on the Decor View it was removed from so the next Alert shown on the
+     * same Activity may reuse it. The Alert is released with the Decor View.
+     *
+     * @param parent The Decor View the Alert was removed from
+     * @param alert  The removed Alert
+     */
+    static void recycle(@NonNull final ViewGroup parent, @NonNull final Alert alert) {
+        if (parent.getTag(R.id.alerter_recycled_alert) == null) {
+            parent.setTag(R.id.alerter_recycled_alert, alert);
+        }
+    }
+
     /**
      * Cleans up the currently showing alert view, if one is present
      *
@@ -77,12 +116,10 @@ public static void clearCurrent(@Nullable final Activity activity) {
         try {
             final ViewGroup decorView = (ViewGroup) activity.getWindow().getDecorView();
 
-            //Find all Alert Views in Parent layout
-            for (int i = 0; i < decorView.getChildCount(); i++) {
-                final Alert childView = decorView.getChildAt(i) instanceof Alert ? (Alert) decorView.getChildAt(i) : null;
-                if (childView != null && childView.getWindowToken() != null) {
-                    childView.animate().alpha(0).withEndAction(getRemoveViewRunnable(childView));
-                }
+            //Only the most recently shown Alert may be attached
+            final Alert childView = alertWeakReference == null ? null : alertWeakReference.get();
+            if (childView != null && childView.getParent() == decorView && childView.getWindowToken() != null) {
+                childView.animate().alpha(0).withEndAction(getRemoveViewRunnable(childView));
             }
 
         } catch (Exception ex) {
@@ -106,7 +143,9 @@ private static Runnable getRemoveViewRunnable(final Alert childView) {
             public void run() {
                 try {
                     if (childView != null) {
-                        ((ViewGroup) childView.getParent()).removeView(childView);
+                        final ViewGroup parent = (ViewGroup) childView.getParent();
+                        parent.removeView(childView);
+                        recycle(parent, childView);
                     }
                 } catch (Exception e) {
                     Log.e(getClass().getSimpleName(), Log.getStackTraceString(e));
@@ -122,8 +161,8 @@ public void run() {
      */
     public static boolean isShowing() {
         boolean isShowing = false;
-        if (activityWeakReference != null && activityWeakReference.get() != null) {
-            isShowing = activityWeakReference.get().findViewById(R.id.flAlertBackground) != null;
+        if (activityWeakReference != null && activityWeakReference.get() != null && alertWeakReference != null && alertWeakReference.get() != null) {
+            isShowing = alertWeakReference.get().getParent() == activityWeakReference.get().getWindow().getDecorView();
         }
 
         return isShowing;
@@ -144,6 +183,7 @@ public void run() {
                     final ViewGroup decorView = getActivityDecorView();
                     if (decorView != null && getAlert().getParent() == null) {
                         decorView.addView(getAlert());
+                        alertWeakReference = new WeakReference<>(getAlert());
                     }
                 }
             });
@@ -0,0 +1,169 @@
+package com.zapic.sdk.android;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the binary event batch format read by the {@link EventBatchDecoder}.
+ */
+public class EventBatchDecoderTest {
+    private static ByteBuffer buffer(final ByteOrder order) {
+        return ByteBuffer.allocate(256).order(order);
+    }
+
+    private static void putString(final ByteBuffer buffer, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void putLong(final ByteBuffer buffer, final String key, final long value) {
+        putString(buffer, key);
+        buffer.put(EventBatchDecoder.TYPE_LONG);
+        buffer.putLong(value);
+    }
+
+    private static void putDouble(final ByteBuffer buffer, final String key, final double value) {
+        putString(buffer, key);
+        buffer.put(EventBatchDecoder.TYPE_DOUBLE);
+        buffer.putDouble(value);
+    }
+
+    private static void assertFails(final ByteBuffer buffer) {
+        final int position = buffer.position();
+        try {
+            EventBatchDecoder.decode(buffer);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(position, buffer.position());
+        }
+    }
+
+    @Test
+    public void decode_readsAllTypes() throws Exception {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(1);
+        buffer.putInt(4);
+        putString(buffer, "boolean");
+        buffer.put(EventBatchDecoder.TYPE_BOOLEAN);
+        buffer.put((byte) 1);
+        putLong(buffer, "long", Long.MAX_VALUE);
+        putDouble(buffer, "double", 1.5);
+        putString(buffer, "string");
+        buffer.put(EventBatchDecoder.TYPE_STRING);
+        putString(buffer, "café");
+        buffer.flip();
+
+        final ArrayList<JSONObject> messages = EventBatchDecoder.decode(buffer);
+
+        assertEquals(1, messages.size());
+        assertEquals("gameplay", messages.get(0).getString("type"));
+        final JSONObject parameters = messages.get(0).getJSONObject("params");
+        assertEquals(4, parameters.length());
+        assertTrue(parameters.getBoolean("boolean"));
+        assertEquals(Long.MAX_VALUE, parameters.getLong("long"));
+        assertEquals(1.5, parameters.getDouble("double"), 0);
+        assertEquals("café", parameters.getString("string"));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void decode_skipsEventsWithoutParameters() throws Exception {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(3);
+        buffer.putInt(0);
+        buffer.putInt(1);
+        putLong(buffer, "score", 10);
+        buffer.putInt(0);
+        buffer.flip();
+
+        final ArrayList<JSONObject> messages = EventBatchDecoder.decode(buffer);
+
+        assertEquals(1, messages.size());
+        assertEquals(10, messages.get(0).getJSONObject("params").getLong("score"));
+    }
+
+    @Test
+    public void decode_readsFromPositionInByteOrder() throws Exception {
+        final ByteBuffer buffer = buffer(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 7);
+        buffer.putInt(1);
+        buffer.putInt(1);
+        putLong(buffer, "score", 0x0102030405060708L);
+        buffer.flip();
+        buffer.position(1);
+
+        final ArrayList<JSONObject> messages = EventBatchDecoder.decode(buffer);
+
+        assertEquals(1, messages.size());
+        assertEquals(0x0102030405060708L, messages.get(0).getJSONObject("params").getLong("score"));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void decode_rejectsMismatchedByteOrder() {
+        final ByteBuffer buffer = buffer(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(1);
+        buffer.putInt(1);
+        putLong(buffer, "score", 10);
+        buffer.flip();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        assertFails(buffer);
+    }
+
+    @Test
+    public void decode_rejectsTruncatedBuffer() {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(1);
+        buffer.putInt(1);
+        putLong(buffer, "score", 10);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+
+        assertFails(buffer);
+    }
+
+    @Test
+    public void decode_rejectsInvalidCount() {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(-1);
+        buffer.flip();
+
+        assertFails(buffer);
+    }
+
+    @Test
+    public void decode_rejectsUnknownType() {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(1);
+        buffer.putInt(1);
+        putString(buffer, "score");
+        buffer.put((byte) 4);
+        buffer.putLong(10);
+        buffer.flip();
+
+        assertFails(buffer);
+    }
+
+    @Test
+    public void decode_rejectsNaN() {
+        final ByteBuffer buffer = buffer(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(2);
+        buffer.putInt(1);
+        putLong(buffer, "score", 10);
+        buffer.putInt(1);
+        putDouble(buffer, "time", Double.NaN);
+        buffer.flip();
+
+        assertFails(buffer);
+    }
+}
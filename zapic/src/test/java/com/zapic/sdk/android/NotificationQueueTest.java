@@ -0,0 +1,123 @@
+package com.zapic.sdk.android;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the ordering, trimming, and coalescing of the {@link NotificationQueue}.
+ */
+public class NotificationQueueTest {
+    private NotificationQueue mQueue;
+
+    private static Notification notification(final String title, final String group, final int priority) {
+        return new Notification(title, null, null, null, group, priority);
+    }
+
+    @Before
+    public void setUp() {
+        mQueue = new NotificationQueue();
+    }
+
+    @Test
+    public void poll_returnsNullWhenEmpty() {
+        assertTrue(mQueue.isEmpty());
+        assertNull(mQueue.peek());
+        assertNull(mQueue.poll());
+    }
+
+    @Test
+    public void poll_ordersByPriorityThenArrival() {
+        mQueue.offer(notification("a", null, 0));
+        mQueue.offer(notification("b", null, 1));
+        mQueue.offer(notification("c", null, 0));
+        mQueue.offer(notification("d", null, 1));
+
+        assertEquals("b", mQueue.poll().getTitle());
+        assertEquals("d", mQueue.poll().getTitle());
+        assertEquals("a", mQueue.poll().getTitle());
+        assertEquals("c", mQueue.poll().getTitle());
+        assertTrue(mQueue.isEmpty());
+    }
+
+    @Test
+    public void peek_doesNotRemove() {
+        mQueue.offer(notification("a", null, 0));
+
+        assertEquals("a", mQueue.peek().getTitle());
+        assertEquals("a", mQueue.peek().getTitle());
+        assertFalse(mQueue.isEmpty());
+    }
+
+    @Test
+    public void offer_dropsLowestPriorityNewestWhenFull() {
+        mQueue.setLimits(3, true);
+        mQueue.offer(notification("a", null, 0));
+        mQueue.offer(notification("b", null, 0));
+        mQueue.offer(notification("c", null, 1));
+        mQueue.offer(notification("d", null, 1));
+
+        assertEquals("c", mQueue.poll().getTitle());
+        assertEquals("d", mQueue.poll().getTitle());
+        assertEquals("a", mQueue.poll().getTitle());
+        assertNull(mQueue.poll());
+    }
+
+    @Test
+    public void setLimits_trimsQueuedNotifications() {
+        for (int i = 0; i < NotificationQueue.DEFAULT_MAX_SIZE; i++) {
+            mQueue.offer(notification(Integer.toString(i), null, 0));
+        }
+
+        mQueue.setLimits(2, true);
+
+        assertEquals("0", mQueue.poll().getTitle());
+        assertEquals("1", mQueue.poll().getTitle());
+        assertNull(mQueue.poll());
+    }
+
+    @Test
+    public void offer_coalescesSameGroup() {
+        mQueue.offer(notification("a", "challenge", 0));
+        mQueue.offer(notification("b", "challenge", 2));
+        mQueue.offer(notification("c", "challenge", 1));
+
+        final Notification notification = mQueue.poll();
+        assertEquals("a", notification.getTitle());
+        assertEquals(2, notification.getCoalescedCount());
+        assertEquals(2, notification.getPriority());
+        assertTrue(mQueue.isEmpty());
+    }
+
+    @Test
+    public void offer_doesNotCoalesceDifferentGroups() {
+        mQueue.offer(notification("a", "challenge", 0));
+        mQueue.offer(notification("b", "competition", 0));
+
+        assertEquals(0, mQueue.poll().getCoalescedCount());
+        assertEquals(0, mQueue.poll().getCoalescedCount());
+        assertTrue(mQueue.isEmpty());
+    }
+
+    @Test
+    public void offer_doesNotCoalesceWithoutGroup() {
+        mQueue.offer(notification("Achievement Unlocked", null, 0));
+        mQueue.offer(notification("Achievement Unlocked", null, 0));
+
+        assertEquals(0, mQueue.poll().getCoalescedCount());
+        assertEquals(0, mQueue.poll().getCoalescedCount());
+        assertTrue(mQueue.isEmpty());
+    }
+
+    @Test
+    public void offer_doesNotCoalesceWhenDisabled() {
+        mQueue.setLimits(NotificationQueue.DEFAULT_MAX_SIZE, false);
+        mQueue.offer(notification("a", "challenge", 0));
+        mQueue.offer(notification("b", "challenge", 0));
+
+        assertEquals("a", mQueue.poll().getTitle());
+        assertEquals("b", mQueue.poll().getTitle());
+        assertTrue(mQueue.isEmpty());
+    }
+}